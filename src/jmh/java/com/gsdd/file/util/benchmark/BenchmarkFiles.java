@@ -0,0 +1,59 @@
+package com.gsdd.file.util.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import lombok.experimental.UtilityClass;
+
+/** Fixture helpers shared by the benchmarks. */
+@UtilityClass
+final class BenchmarkFiles {
+
+  private static final String[] WORDS = {
+    "INFO", "WARN", "ERROR", "request", "completed", "in", "ms", "user", "session", "upload"
+  };
+
+  /**
+   * Write a log-like file, compressible but not trivially so.
+   *
+   * @param file target.
+   * @param size bytes to write.
+   * @param seed random seed, so runs are comparable.
+   * @throws IOException on write error.
+   */
+  static void writeLogFile(Path file, long size, long seed) throws IOException {
+    Random random = new Random(seed);
+    try (OutputStream os = Files.newOutputStream(file)) {
+      long written = 0;
+      StringBuilder line = new StringBuilder();
+      while (written < size) {
+        line.setLength(0);
+        line.append(random.nextLong()).append(' ');
+        for (int i = 0; i < 8; i++) {
+          line.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        line.append(random.nextInt(10_000)).append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.US_ASCII);
+        int length = (int) Math.min(bytes.length, size - written);
+        os.write(bytes, 0, length);
+        written += length;
+      }
+    }
+  }
+
+  static void deleteTree(Path root) throws IOException {
+    if (root == null || !Files.exists(root)) {
+      return;
+    }
+    try (Stream<Path> tree = Files.walk(root)) {
+      for (Path path : tree.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.gsdd.file.util.benchmark;
+
+import com.gsdd.file.util.ByteConverter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of formatting sizes, called on every progress log. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteConverterBenchmark {
+
+  @Param({"0", "100", "1048576", "5368709120", "9223372036854775807"})
+  public long size;
+
+  @Benchmark
+  public String readableFileSize() {
+    return ByteConverter.readableFileSize(size);
+  }
+}
@@ -0,0 +1,130 @@
+package com.gsdd.file.util.benchmark;
+
+import com.gsdd.file.util.FtpUtil;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.ftpserver.FtpServer;
+import org.apache.ftpserver.FtpServerFactory;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.listener.ListenerFactory;
+import org.apache.ftpserver.usermanager.PropertiesUserManagerFactory;
+import org.apache.ftpserver.usermanager.impl.BaseUser;
+import org.apache.ftpserver.usermanager.impl.WritePermission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FTP transfer loops against an in-process Apache FtpServer on loopback, so results show the
+ * client side cost (buffers, flushes, NOOPs) rather than network latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FtpTransferBenchmark {
+
+  private static final String USER = "bench";
+  private static final String SOURCE = "source.bin";
+  private static final long FILE_SIZE = 32L * 1024 * 1024;
+
+  @Param({"4096", "65536", "1048576"})
+  public int transferSpeed;
+
+  private Path root;
+  private Path local;
+  private Path download;
+  private FtpServer server;
+  private UploadableFtpFile ftpFile;
+  private FTPClient client;
+  private TransferOptions options;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException, FtpException {
+    root = Files.createTempDirectory("ftp-bench");
+    Path home = Files.createDirectory(root.resolve("home"));
+    local = root.resolve("local.bin");
+    download = root.resolve("download.bin");
+    BenchmarkFiles.writeLogFile(local, FILE_SIZE, 1L);
+    Files.copy(local, home.resolve(SOURCE));
+    server = startServer(home);
+    client = new FTPClient();
+    client.setBufferSize(transferSpeed);
+    FtpUtil.connect(ftpFile, client);
+    options = new TransferOptions();
+    options.setBufferSize(transferSpeed);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FtpUtil.disconnect(client);
+    server.stop();
+    BenchmarkFiles.deleteTree(root);
+  }
+
+  @Benchmark
+  public boolean uploadStoreFile() {
+    return FtpUtil.transferFileIs(client, local.toString(), "upload_is.bin");
+  }
+
+  @Benchmark
+  public boolean uploadStream() {
+    return FtpUtil.transferFileOS(
+        ftpFile, client, local.toString(), "upload_os.bin", transferSpeed, Integer.MAX_VALUE);
+  }
+
+  @Benchmark
+  public boolean uploadLargeFile() {
+    return FtpUtil.transferLargeFile(client, local.toString(), "upload_large.bin", options, null);
+  }
+
+  @Benchmark
+  public boolean download() {
+    return FtpUtil.receiveFile(client, download.toString(), SOURCE);
+  }
+
+  private FtpServer startServer(Path home) throws IOException, FtpException {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    FtpServerFactory serverFactory = new FtpServerFactory();
+    ListenerFactory listenerFactory = new ListenerFactory();
+    listenerFactory.setPort(port);
+    serverFactory.addListener("default", listenerFactory.createListener());
+    serverFactory.setUserManager(new PropertiesUserManagerFactory().createUserManager());
+    BaseUser user = new BaseUser();
+    user.setName(USER);
+    user.setPassword(USER);
+    user.setHomeDirectory(home.toString());
+    user.setAuthorities(List.of(new WritePermission()));
+    serverFactory.getUserManager().save(user);
+    FtpServer ftpServer = serverFactory.createServer();
+    ftpServer.start();
+    ftpFile = new UploadableFtpFile();
+    ftpFile.setServer("localhost");
+    ftpFile.setPort(port);
+    ftpFile.setUser(USER);
+    ftpFile.setPass(USER);
+    return ftpServer;
+  }
+}
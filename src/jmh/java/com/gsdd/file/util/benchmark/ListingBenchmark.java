@@ -0,0 +1,112 @@
+package com.gsdd.file.util.benchmark;
+
+import com.gsdd.file.util.DirectoryIndex;
+import com.gsdd.file.util.FileUtil;
+import com.gsdd.file.util.RetentionEngine;
+import com.gsdd.file.util.model.FileEntry;
+import com.gsdd.file.util.model.RetentionPolicy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Directory listing and retention selection on big flat dirs. Retention only selects the files to
+ * delete, deleting them would change the fixture between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ListingBenchmark {
+
+  private static final int KEEP = 100;
+  private static final long BASE_TIME = 1_600_000_000_000L;
+
+  @Param({"10000", "100000", "1000000"})
+  public int fileCount;
+
+  private Path dir;
+  private DirectoryIndex index;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("listing-bench");
+    for (int i = 0; i < fileCount; i++) {
+      Path file = Files.createFile(dir.resolve("file_" + i + ".log"));
+      Files.setLastModifiedTime(file, FileTime.fromMillis(BASE_TIME + (i * 7919L) % fileCount));
+    }
+    index = new DirectoryIndex(dir.toString());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    index.close();
+    BenchmarkFiles.deleteTree(dir);
+  }
+
+  /** Listing as FileUtil did it before the entries, a stat per comparison while sorting. */
+  @Benchmark
+  public List<File> sortedListingLegacy() {
+    File[] files = Optional.ofNullable(dir.toFile().listFiles()).orElseGet(() -> new File[0]);
+    return Stream.of(files).sorted(Comparator.comparingLong(File::lastModified)).toList();
+  }
+
+  @Benchmark
+  public List<File> sortedListing() {
+    return FileUtil.getFilesSortedByLastModification(dir.toString());
+  }
+
+  @Benchmark
+  public List<FileEntry> fileEntries() {
+    return FileUtil.getFileEntries(dir.toString());
+  }
+
+  @Benchmark
+  public List<FileEntry> sortedListingIndexed() {
+    return index.getFilesSortedByLastModification();
+  }
+
+  @Benchmark
+  public int retentionKeepNewest(Blackhole blackhole) {
+    try (Stream<FileEntry> entries = FileUtil.streamFiles(dir.toString())) {
+      return RetentionEngine.apply(
+          entries.iterator(),
+          FileEntry::getLastModified,
+          FileEntry::getSize,
+          RetentionPolicy.keepNewest(KEEP),
+          System.currentTimeMillis(),
+          blackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public int retentionFullSort(Blackhole blackhole) {
+    List<File> sorted = FileUtil.getFilesSortedByLastModification(dir.toString());
+    List<File> expired = sorted.subList(0, Math.max(sorted.size() - KEEP, 0));
+    expired.forEach(blackhole::consume);
+    return expired.size();
+  }
+}
@@ -0,0 +1,103 @@
+package com.gsdd.file.util.benchmark;
+
+import com.gsdd.file.util.FileUtil;
+import com.gsdd.file.util.ZipArchiver;
+import com.gsdd.file.util.ZipExtractor;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Zip/unzip throughput across buffer sizes, for a bundle of log-like files. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ZipBenchmark {
+
+  private static final int FILES = 200;
+  private static final long FILE_SIZE = 256L * 1024;
+
+  @Param({"4096", "65536", "1048576"})
+  public int byteBuffer;
+
+  private Path root;
+  private List<File> files;
+  private String zip;
+  private String target;
+  private String outDir;
+  private ExecutorService singleThread;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    root = Files.createTempDirectory("zip-bench");
+    Path input = Files.createDirectory(root.resolve("input"));
+    files = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      Path file = input.resolve("app_" + i + ".log");
+      BenchmarkFiles.writeLogFile(file, FILE_SIZE, i);
+      files.add(file.toFile());
+    }
+    zip = root.resolve("source.zip").toString();
+    ZipArchiver.zipFiles(zip, files, byteBuffer);
+    target = root.resolve("target.zip").toString();
+    outDir = root.resolve("out").toString();
+    singleThread = Executors.newSingleThreadExecutor();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    singleThread.shutdown();
+    BenchmarkFiles.deleteTree(root);
+  }
+
+  @Benchmark
+  public boolean zipSingleFile() {
+    return FileUtil.zipFile(target, files.getFirst().getAbsolutePath(), byteBuffer);
+  }
+
+  @Benchmark
+  public boolean zipFilesSequential() {
+    return ZipArchiver.zipFiles(target, files, byteBuffer, singleThread, 1);
+  }
+
+  @Benchmark
+  public boolean zipFilesParallel() {
+    return ZipArchiver.zipFiles(target, files, byteBuffer);
+  }
+
+  @Benchmark
+  public int unzipStreaming() {
+    return ZipExtractor.unzip(zip, outDir, byteBuffer);
+  }
+
+  @Benchmark
+  public int extractParallel() {
+    return ZipExtractor.extract(zip, outDir, name -> true, byteBuffer);
+  }
+
+  @Benchmark
+  public int extractSingleEntry() {
+    return ZipExtractor.extract(zip, outDir, "app_100.log"::equals, byteBuffer);
+  }
+}
@@ -10,6 +10,19 @@ public final class FileConstants {
   public static final String SMB_URL = "smb://";
   public static final String FILE_PERMISSION = "rw";
   public static final String FILE_EXT = ".tmp";
+  public static final String ZIP_SEPARATOR = "/";
+  public static final String FTP_SEPARATOR = "/";
+  public static final int ZIP_LOCAL_HEADER_SIG = 0x04034b50;
+  public static final int ZIP_CENTRAL_HEADER_SIG = 0x02014b50;
+  public static final int ZIP_END_SIG = 0x06054b50;
+  public static final int ZIP64_END_SIG = 0x06064b50;
+  public static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+  public static final int ZIP64_EXTRA_ID = 0x0001;
+  public static final int ZIP_FLAG_UTF8 = 0x0800;
+  public static final int ZIP_VERSION = 20;
+  public static final int ZIP64_VERSION = 45;
+  public static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+  public static final int ZIP64_MAGIC_COUNT = 0xFFFF;
   static final String[] BYTE_UNITS =
       new String[] {"B", "KB", "MB", "GB", "TB", "PB", "EB", "ZB", "YB"};
 
@@ -0,0 +1,144 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.file.util.model.CompressedEntry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encrypts compressed entries using the WinZip AES-256 format (AE-2), the same one zip4j writes
+ * for {@code EncryptionMethod.AES}, so the archives can be read by zip4j and common zip tools.
+ *
+ * @see <a href="https://www.winzip.com/en/support/aes-encryption/">winzip.com</a>
+ */
+final class AesEntryEncrypter {
+
+  static final int AES_METHOD = 99;
+  static final int AES_VERSION = 51;
+  private static final int AES_EXTRA_ID = 0x9901;
+  private static final int AES_EXTRA_SIZE = 7;
+  private static final int AE_2 = 2;
+  private static final int STRENGTH_256 = 3;
+  private static final int KEY_LENGTH = 32;
+  private static final int SALT_LENGTH = 16;
+  private static final int VERIFIER_LENGTH = 2;
+  private static final int MAC_LENGTH = 10;
+  private static final int BLOCK = 16;
+  private static final int CHUNK = BLOCK * 4096;
+  private static final int ITERATIONS = 1000;
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final char[] pass;
+
+  AesEntryEncrypter(char[] pass) {
+    this.pass = pass.clone();
+  }
+
+  /**
+   * Encrypt the payload of an entry streaming it, so big entries are never held in memory.
+   *
+   * @param entry compressed entry, it's left untouched.
+   * @param spillThreshold max encrypted bytes held in memory, beyond it they go to a temp file.
+   * @return encrypted entry.
+   */
+  CompressedEntry encrypt(CompressedEntry entry, int spillThreshold)
+      throws GeneralSecurityException, IOException {
+    byte[] salt = new byte[SALT_LENGTH];
+    RANDOM.nextBytes(salt);
+    byte[] keys = deriveKeys(salt);
+    Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+    cipher.init(
+        Cipher.ENCRYPT_MODE, new SecretKeySpec(keys, NumericConstants.ZERO, KEY_LENGTH, "AES"));
+    Mac mac = Mac.getInstance("HmacSHA1");
+    mac.init(new SecretKeySpec(keys, KEY_LENGTH, KEY_LENGTH, "HmacSHA1"));
+    SpillOutputStream out = new SpillOutputStream(spillThreshold);
+    try (InputStream in = entry.openData()) {
+      out.write(salt);
+      out.write(keys, KEY_LENGTH * 2, VERIFIER_LENGTH);
+      byte[] counter = new byte[BLOCK];
+      byte[] buffer = new byte[CHUNK];
+      byte[] stream = new byte[CHUNK];
+      int read;
+      while ((read = in.readNBytes(buffer, NumericConstants.ZERO, CHUNK)) > NumericConstants.ZERO) {
+        ctr(cipher, counter, stream, buffer, read);
+        mac.update(buffer, NumericConstants.ZERO, read);
+        out.write(buffer, NumericConstants.ZERO, read);
+      }
+      out.write(Arrays.copyOf(mac.doFinal(), MAC_LENGTH));
+      out.close();
+    } catch (IOException | GeneralSecurityException | RuntimeException e) {
+      out.discard();
+      throw e;
+    }
+    return new CompressedEntry(
+        entry.getName(),
+        AES_METHOD,
+        entry.getFlags() | 1,
+        AES_VERSION,
+        NumericConstants.ZERO,
+        entry.getSize(),
+        entry.getLastModified(),
+        extra(entry.getMethod()),
+        out.getData(),
+        out.getFile(),
+        out.getSize());
+  }
+
+  private byte[] deriveKeys(byte[] salt) throws GeneralSecurityException {
+    PBEKeySpec spec =
+        new PBEKeySpec(
+            pass, salt, ITERATIONS, (KEY_LENGTH * 2 + VERIFIER_LENGTH) * Byte.SIZE);
+    try {
+      return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1").generateSecret(spec).getEncoded();
+    } finally {
+      spec.clearPassword();
+    }
+  }
+
+  /**
+   * AES in CTR mode with the little endian counter, starting at 1, that WinZip uses. The counter
+   * blocks of the whole chunk are encrypted with a single cipher call into the key stream buffer.
+   * The counter carries over calls, every call but the last one must cover whole blocks.
+   */
+  private static void ctr(Cipher cipher, byte[] counter, byte[] stream, byte[] data, int length)
+      throws GeneralSecurityException {
+    int blocks = (length + BLOCK - 1) / BLOCK;
+    for (int block = NumericConstants.ZERO; block < blocks; block++) {
+      increment(counter);
+      System.arraycopy(counter, NumericConstants.ZERO, stream, block * BLOCK, BLOCK);
+    }
+    cipher.doFinal(stream, NumericConstants.ZERO, blocks * BLOCK, stream, NumericConstants.ZERO);
+    for (int i = NumericConstants.ZERO; i < length; i++) {
+      data[i] ^= stream[i];
+    }
+  }
+
+  private static void increment(byte[] counter) {
+    for (int i = NumericConstants.ZERO; i < counter.length; i++) {
+      if (++counter[i] != NumericConstants.ZERO) {
+        break;
+      }
+    }
+  }
+
+  private static byte[] extra(int method) {
+    ByteBuffer extra = ZipStreamWriter.littleEndian(4 + AES_EXTRA_SIZE);
+    extra.putShort((short) AES_EXTRA_ID);
+    extra.putShort((short) AES_EXTRA_SIZE);
+    extra.putShort((short) AE_2);
+    extra.put((byte) 'A');
+    extra.put((byte) 'E');
+    extra.put((byte) STRENGTH_256);
+    extra.putShort((short) method);
+    return extra.array();
+  }
+}
@@ -0,0 +1,199 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.TransferResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a batch of transfers for any transport. Files are queued largest first, so the big ones
+ * don't start last and stretch the tail of the batch, and a fixed number of workers take the next
+ * file from the queue, retrying each one with a pause between attempts.
+ */
+@Slf4j
+@UtilityClass
+final class BatchRunner {
+
+  /**
+   * Transfer the files.
+   *
+   * @param transfers local and remote route of each file.
+   * @param options concurrency, retries and delay between them.
+   * @param workers creates the worker of each thread, it's closed when the queue is empty.
+   * @return result per file, in the order of the transfers.
+   */
+  static TransferReport run(
+      List<FileTransfer> transfers, TransferOptions options, Supplier<Worker> workers) {
+    long start = System.nanoTime();
+    List<Job> jobs = new ArrayList<>(transfers.size());
+    for (int i = 0; i < transfers.size(); i++) {
+      FileTransfer transfer = transfers.get(i);
+      jobs.add(new Job(i, transfer, size(Path.of(transfer.getLocalRoute()))));
+    }
+    jobs.sort(Comparator.comparingLong(Job::size).reversed());
+    Queue<Job> queue = new ConcurrentLinkedQueue<>(jobs);
+    TransferResult[] results = new TransferResult[transfers.size()];
+    AtomicReference<String> unavailable = new AtomicReference<>();
+    int count = Math.clamp(options.getConcurrency(), 1, Math.max(1, transfers.size()));
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < count; i++) {
+        executor.execute(() -> work(workers, queue, options, results, unavailable));
+      }
+    }
+    for (Job job : jobs) {
+      if (results[job.index()] == null) {
+        results[job.index()] = failed(job, 0, "Not transferred", System.nanoTime());
+      }
+    }
+    return new TransferReport(Arrays.asList(results), Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * Sleep between attempts.
+   *
+   * @param delay time to wait.
+   * @return false if interrupted, the interrupt flag is restored.
+   */
+  static boolean pause(Duration delay) {
+    try {
+      Thread.sleep(delay);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Transfer the queued files until the queue is empty. When every attempt of a file fails with
+   * {@link Unavailable} the target is taken as down and the rest of the queue is failed without
+   * trying it again.
+   */
+  private static void work(
+      Supplier<Worker> workers,
+      Queue<Job> queue,
+      TransferOptions options,
+      TransferResult[] results,
+      AtomicReference<String> unavailable) {
+    Worker worker = null;
+    try {
+      Job job;
+      while ((job = queue.poll()) != null) {
+        long start = System.nanoTime();
+        if (unavailable.get() != null) {
+          results[job.index()] = failed(job, 0, unavailable.get(), start);
+          continue;
+        }
+        if (worker == null) {
+          worker = workers.get();
+        }
+        results[job.index()] = transfer(worker, job, options, unavailable, start);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Batch worker stopped: {}", e.getMessage());
+    } finally {
+      if (worker != null) {
+        worker.close();
+      }
+    }
+  }
+
+  private static TransferResult transfer(
+      Worker worker,
+      Job job,
+      TransferOptions options,
+      AtomicReference<String> unavailable,
+      long start) {
+    String error = null;
+    int attempts = NumericConstants.ZERO;
+    boolean reached = false;
+    while (attempts <= options.getRetries()) {
+      if (attempts++ > NumericConstants.ZERO && !pause(options.getRetryDelay())) {
+        break;
+      }
+      try {
+        long bytes = worker.transfer(job.transfer());
+        return new TransferResult(
+            job.transfer(),
+            true,
+            bytes,
+            attempts,
+            null,
+            Duration.ofNanos(System.nanoTime() - start));
+      } catch (Unavailable e) {
+        error = e.getMessage();
+      } catch (Exception e) {
+        reached = true;
+        error = e.getMessage();
+      }
+    }
+    log.warn("Transfer of {} failed: {}", job.transfer().getLocalRoute(), error);
+    if (!reached) {
+      unavailable.compareAndSet(null, error);
+    }
+    return failed(job, attempts, error, start);
+  }
+
+  private static TransferResult failed(Job job, int attempts, String error, long start) {
+    return new TransferResult(
+        job.transfer(),
+        false,
+        job.size(),
+        attempts,
+        error,
+        Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private static long size(Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+
+  /** Transfers files one at a time, it may keep a connection between them. */
+  @FunctionalInterface
+  interface Worker {
+
+    /**
+     * @param transfer local and remote route.
+     * @return bytes transferred.
+     * @throws Unavailable if the target can't be reached at all.
+     * @throws Exception on any other error, its message is reported.
+     */
+    long transfer(FileTransfer transfer) throws Exception;
+
+    /** Release what the worker holds, called once the queue is empty. */
+    default void close() {}
+  }
+
+  /** The target can't be reached, for example no session can be opened. */
+  static final class Unavailable extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    Unavailable(String message) {
+      super(message);
+    }
+  }
+
+  private record Job(int index, FileTransfer transfer, long size) {}
+}
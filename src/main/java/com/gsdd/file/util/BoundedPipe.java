@@ -0,0 +1,193 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+
+/**
+ * Streams bytes from a producer thread to a consumer one through a fixed number of reusable
+ * chunks, so both sides overlap and memory stays bounded. Unlike {@link java.io.PipedInputStream}
+ * the reader is woken as soon as a chunk is ready instead of polling every second.
+ *
+ * <p>The producer can {@link #fail(Exception)} the pipe so the consumer gets the error instead of
+ * a truncated stream; closing the input makes further writes fail, so a producer is never left
+ * blocked when the consumer gives up.
+ */
+final class BoundedPipe {
+
+  private static final long POLL_MILLIS = 100L;
+  private static final Chunk EOF = new Chunk(new byte[0], NumericConstants.ZERO);
+
+  private final BlockingQueue<Chunk> ready;
+  private final BlockingQueue<byte[]> free;
+  private final int chunkSize;
+  private volatile boolean readerClosed;
+  private volatile IOException failure;
+  @Getter private final OutputStream output = new PipeOutput();
+  @Getter private final InputStream input = new PipeInput();
+
+  /**
+   * @param chunkSize bytes per chunk.
+   * @param depth chunks that can wait for the consumer.
+   */
+  BoundedPipe(int chunkSize, int depth) {
+    this.chunkSize = Math.max(chunkSize, 1);
+    this.ready = new ArrayBlockingQueue<>(Math.max(depth, 1) + 1);
+    this.free = new ArrayBlockingQueue<>(Math.max(depth, 1) + 2);
+  }
+
+  /**
+   * End the stream with an error, the consumer gets it on its next read. The producer must not
+   * close the output before, or the consumer may take the stream as complete.
+   *
+   * @param e cause, wrapped in an {@link IOException} if it's not one.
+   */
+  void fail(Exception e) {
+    failure = e instanceof IOException io ? io : new IOException(e);
+    ready.clear();
+    ready.offer(EOF);
+  }
+
+  private byte[] newBuffer() {
+    byte[] buffer = free.poll();
+    return buffer != null ? buffer : new byte[chunkSize];
+  }
+
+  private void push(Chunk chunk) throws IOException {
+    try {
+      while (!ready.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        if (readerClosed) {
+          throw new IOException("Pipe closed");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+
+  private record Chunk(byte[] data, int length) {}
+
+  private final class PipeOutput extends OutputStream {
+
+    private byte[] buffer;
+    private int count;
+    private boolean closed;
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, NumericConstants.ZERO, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (closed || readerClosed) {
+        throw new IOException("Pipe closed");
+      }
+      int offset = off;
+      int remaining = len;
+      while (remaining > NumericConstants.ZERO) {
+        if (buffer == null) {
+          buffer = newBuffer();
+        }
+        int n = Math.min(remaining, buffer.length - count);
+        System.arraycopy(b, offset, buffer, count, n);
+        count += n;
+        offset += n;
+        remaining -= n;
+        if (count == buffer.length) {
+          flush();
+        }
+      }
+    }
+
+    /** Hand the partial chunk to the consumer. */
+    @Override
+    public void flush() throws IOException {
+      if (count > NumericConstants.ZERO) {
+        push(new Chunk(buffer, count));
+        buffer = null;
+        count = NumericConstants.ZERO;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        flush();
+        closed = true;
+        push(EOF);
+      }
+    }
+  }
+
+  private final class PipeInput extends InputStream {
+
+    private Chunk chunk;
+    private int position;
+    private boolean eof;
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, NumericConstants.ZERO, 1) == NumericConstants.MINUS_ONE
+          ? NumericConstants.MINUS_ONE
+          : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == NumericConstants.ZERO) {
+        return NumericConstants.ZERO;
+      }
+      if (!next()) {
+        return NumericConstants.MINUS_ONE;
+      }
+      int n = Math.min(len, chunk.length() - position);
+      System.arraycopy(chunk.data(), position, b, off, n);
+      position += n;
+      return n;
+    }
+
+    @Override
+    public void close() {
+      readerClosed = true;
+      ready.clear();
+    }
+
+    private boolean next() throws IOException {
+      if (chunk != null && position < chunk.length()) {
+        return true;
+      }
+      if (chunk != null) {
+        free.offer(chunk.data());
+        chunk = null;
+      }
+      if (eof) {
+        return false;
+      }
+      try {
+        Chunk taken = ready.take();
+        if (taken == EOF) {
+          eof = true;
+          if (failure != null) {
+            throw failure;
+          }
+          return false;
+        }
+        chunk = taken;
+        position = NumericConstants.ZERO;
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(e.getMessage());
+      }
+    }
+  }
+}
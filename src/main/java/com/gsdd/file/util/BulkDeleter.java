@@ -0,0 +1,94 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.FileEntry;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Deletes local files in parallel on virtual threads, which pays off on network backed
+ * filesystems where each unlink is a round-trip.
+ */
+@UtilityClass
+public final class BulkDeleter {
+
+  /**
+   * Delete the given files. The entries already carry the size so no extra stat is done.
+   *
+   * @param entries files to delete.
+   * @param maxConcurrency max deletes running at the same time.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport delete(Collection<FileEntry> entries, int maxConcurrency) {
+    DeletionCounter counter = new DeletionCounter();
+    forEachParallel(
+        entries,
+        maxConcurrency,
+        entry -> {
+          try {
+            Files.delete(entry.getPath());
+            counter.deleted(entry.getSize());
+          } catch (Exception e) {
+            counter.failed(entry.getPath().toString(), e);
+          }
+        });
+    return counter.toReport();
+  }
+
+  /**
+   * Delete the regular files of a dir accepted by the filter.
+   *
+   * @param route dir.
+   * @param filter which files to delete.
+   * @param maxConcurrency max deletes running at the same time.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport delete(
+      String route, Predicate<FileEntry> filter, int maxConcurrency) {
+    List<FileEntry> entries = new ArrayList<>();
+    for (FileEntry entry : FileUtil.getFileEntries(route)) {
+      if (entry.isRegularFile() && filter.test(entry)) {
+        entries.add(entry);
+      }
+    }
+    return delete(entries, maxConcurrency);
+  }
+
+  /**
+   * Run a task for each item on virtual threads, with at most maxConcurrency running at once, and
+   * wait for all of them.
+   *
+   * @param items items to process.
+   * @param maxConcurrency max tasks running at the same time.
+   * @param task action, it should handle its own errors.
+   * @param <T> item type.
+   */
+  static <T> void forEachParallel(Collection<T> items, int maxConcurrency, Consumer<T> task) {
+    Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (T item : items) {
+        permits.acquire();
+        executor.execute(
+            () -> {
+              try {
+                task.accept(item);
+              } finally {
+                permits.release();
+              }
+            });
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException(e);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.TransferOptions;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Byte range of a file fetched on its own stream by the segmented downloads, position is the next
+ * byte to fetch so a failed range can be retried from where it stopped.
+ */
+final class ByteRange {
+
+  private final long end;
+  private final boolean last;
+  private long position;
+  private int attempts;
+
+  ByteRange(long start, long end, boolean last) {
+    this.position = start;
+    this.end = end;
+    this.last = last;
+  }
+
+  /**
+   * Split a file in up to concurrency ranges of at least the segment size of the options.
+   *
+   * @param size bytes of the file.
+   * @param options segment size and concurrency.
+   * @return contiguous ranges covering the file, at least one.
+   */
+  static List<ByteRange> split(long size, TransferOptions options) {
+    long minSegment = Math.max(options.getSegmentSize(), 1L);
+    long count =
+        Math.clamp(
+            (size + minSegment - 1) / minSegment, 1L, Math.max(1, options.getConcurrency()));
+    long length = size / count;
+    List<ByteRange> ranges = new ArrayList<>();
+    for (long i = 0; i < count; i++) {
+      long from = i * length;
+      boolean isLast = i == count - 1;
+      ranges.add(new ByteRange(from, isLast ? size : from + length, isLast));
+    }
+    return ranges;
+  }
+
+  long getPosition() {
+    return position;
+  }
+
+  long getEnd() {
+    return end;
+  }
+
+  /**
+   * @return true if the range ends at the end of the file.
+   */
+  boolean isLast() {
+    return last;
+  }
+
+  long getRemaining() {
+    return end - position;
+  }
+
+  int getAttempts() {
+    return attempts;
+  }
+
+  /**
+   * Count a new attempt on the range.
+   *
+   * @return attempts made before this one.
+   */
+  int attempt() {
+    return attempts++;
+  }
+
+  void advance(long bytes) {
+    position += bytes;
+  }
+}
@@ -0,0 +1,39 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.DeletionReport;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Thread safe accumulator for the outcome of deletes running in parallel. */
+final class DeletionCounter {
+
+  private final long start = System.nanoTime();
+  private final AtomicInteger deleted = new AtomicInteger();
+  private final LongAdder bytesFreed = new LongAdder();
+  private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+  void deleted(long bytes) {
+    deleted.incrementAndGet();
+    bytesFreed.add(bytes);
+  }
+
+  void failed(String name, Exception e) {
+    failed(name, e.getMessage());
+  }
+
+  void failed(String name, String message) {
+    failures.put(name, String.valueOf(message));
+  }
+
+  DeletionReport toReport() {
+    return new DeletionReport(
+        deleted.get(),
+        bytesFreed.sum(),
+        new TreeMap<>(failures),
+        Duration.ofNanos(System.nanoTime() - start));
+  }
+}
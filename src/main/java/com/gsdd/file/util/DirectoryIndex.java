@@ -0,0 +1,265 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileEntry;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index of the entries of a directory sorted by last modification. Attributes are read once, the
+ * index is kept up to date from {@link WatchService} events and it can be persisted to a snapshot
+ * file, so a restart only rescans when the directory changed meanwhile.
+ *
+ * <p>The snapshot is trusted while the directory modification time is the same one stored on it,
+ * which covers files added or removed; content changes of existing files made while the index was
+ * not running are only seen after the next event or {@link #rescan()}.
+ */
+@Slf4j
+public final class DirectoryIndex implements Closeable {
+
+  private static final int SNAPSHOT_MAGIC = 0x46494458;
+  private static final int SNAPSHOT_VERSION = 1;
+
+  @Getter private final Path dir;
+  private final Path snapshot;
+  private final Map<Path, FileEntry> byPath = new HashMap<>();
+  private final NavigableSet<FileEntry> byLastModified = new TreeSet<>(FileUtil.BY_LAST_MODIFIED);
+  private final WatchService watchService;
+
+  /**
+   * Build an index for a dir without snapshot.
+   *
+   * @param route dir to index.
+   */
+  public DirectoryIndex(String route) {
+    this(route, null);
+  }
+
+  /**
+   * Build an index for a dir, loading the snapshot when it's still valid.
+   *
+   * @param route dir to index.
+   * @param snapshotRoute file where the index is persisted on {@link #close()}, may be null. It
+   *     should live outside of the dir, otherwise writing it invalidates itself.
+   */
+  public DirectoryIndex(String route, String snapshotRoute) {
+    try {
+      this.dir = Path.of(route).toAbsolutePath();
+      this.snapshot = snapshotRoute != null ? Path.of(snapshotRoute) : null;
+      this.watchService = dir.getFileSystem().newWatchService();
+      register();
+      if (!loadSnapshot()) {
+        rescan();
+      }
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Apply the pending watch events to the index, without blocking.
+   *
+   * @return how many events were applied.
+   */
+  public synchronized int refresh() {
+    int applied = NumericConstants.ZERO;
+    try {
+      WatchKey key;
+      while ((key = watchService.poll()) != null) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            rescan();
+          } else {
+            apply(dir.resolve((Path) event.context()));
+          }
+          applied++;
+        }
+        if (!key.reset()) {
+          register();
+          rescan();
+        }
+      }
+    } catch (ClosedWatchServiceException | IOException e) {
+      throw new TechnicalException(e);
+    }
+    return applied;
+  }
+
+  /** Drop the index and read again every entry of the dir. */
+  public synchronized void rescan() {
+    byPath.clear();
+    byLastModified.clear();
+    FileUtil.getFileEntries(dir.toString()).forEach(this::put);
+  }
+
+  public synchronized List<FileEntry> getFilesSortedByLastModification() {
+    refresh();
+    return new ArrayList<>(byLastModified);
+  }
+
+  public synchronized FileEntry getLastModifiedFile() {
+    refresh();
+    return byLastModified.descendingSet().stream()
+        .filter(FileEntry::isRegularFile)
+        .findFirst()
+        .orElse(null);
+  }
+
+  public synchronized int size() {
+    return byPath.size();
+  }
+
+  /**
+   * Delete 0B size files.
+   *
+   * @return how many files were deleted.
+   */
+  public synchronized int deleteEmptyFiles() {
+    refresh();
+    List<FileEntry> empty =
+        byLastModified.stream()
+            .filter(entry -> entry.isRegularFile() && entry.getSize() == NumericConstants.ZERO)
+            .toList();
+    return delete(empty);
+  }
+
+  /**
+   * Delete the oldest files keeping the newest ones.
+   *
+   * @param backup how many files preserve.
+   * @return how many files were deleted.
+   */
+  public synchronized int deleteOldFiles(int backup) {
+    refresh();
+    List<FileEntry> files = byLastModified.stream().filter(FileEntry::isRegularFile).toList();
+    int expired = Math.max(files.size() - backup, NumericConstants.ZERO);
+    return delete(files.subList(NumericConstants.ZERO, expired));
+  }
+
+  /** Persist the index to the snapshot file, if any. */
+  public synchronized void saveSnapshot() {
+    if (snapshot == null) {
+      return;
+    }
+    refresh();
+    Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeUTF(dir.toString());
+        out.writeLong(Files.getLastModifiedTime(dir).toMillis());
+        out.writeInt(byPath.size());
+        for (FileEntry entry : byLastModified) {
+          out.writeUTF(entry.getPath().getFileName().toString());
+          out.writeLong(entry.getSize());
+          out.writeLong(entry.getLastModified());
+          out.writeBoolean(entry.isRegularFile());
+        }
+      }
+      Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /** Save the snapshot, if any, and stop watching the dir. */
+  @Override
+  public synchronized void close() {
+    try {
+      saveSnapshot();
+    } finally {
+      IoUtils.closeQuietly(watchService, e -> log.error(e.getMessage(), e));
+    }
+  }
+
+  private boolean loadSnapshot() {
+    if (snapshot == null || !Files.isRegularFile(snapshot)) {
+      return false;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      if (in.readInt() != SNAPSHOT_MAGIC
+          || in.readInt() != SNAPSHOT_VERSION
+          || !dir.toString().equals(in.readUTF())
+          || in.readLong() != Files.getLastModifiedTime(dir).toMillis()) {
+        return false;
+      }
+      int count = in.readInt();
+      for (int i = NumericConstants.ZERO; i < count; i++) {
+        Path path = dir.resolve(in.readUTF());
+        put(new FileEntry(path, in.readLong(), in.readLong(), in.readBoolean()));
+      }
+      return true;
+    } catch (IOException e) {
+      log.warn("Ignoring snapshot {}: {}", snapshot, e.getMessage());
+      byPath.clear();
+      byLastModified.clear();
+      return false;
+    }
+  }
+
+  private void register() throws IOException {
+    dir.register(
+        watchService,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_DELETE,
+        StandardWatchEventKinds.ENTRY_MODIFY);
+  }
+
+  private void apply(Path path) {
+    remove(path);
+    FileEntry entry = FileUtil.readEntry(path);
+    if (entry != null) {
+      put(entry);
+    }
+  }
+
+  private int delete(List<FileEntry> entries) {
+    int deleted = NumericConstants.ZERO;
+    for (FileEntry entry : entries) {
+      if (FileUtil.deleteFile(entry.toFile())) {
+        remove(entry.getPath());
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  private void put(FileEntry entry) {
+    FileEntry previous = byPath.put(entry.getPath(), entry);
+    if (previous != null) {
+      byLastModified.remove(previous);
+    }
+    byLastModified.add(entry);
+  }
+
+  private void remove(Path path) {
+    FileEntry previous = byPath.remove(path);
+    if (previous != null) {
+      byLastModified.remove(previous);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.ArchiveOptions;
+import com.gsdd.file.util.model.CompressedEntry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Builds AES encrypted zip archives. Compression and encryption of each entry run on worker
+ * threads while the calling thread appends the finished entries in order, unlike {@link
+ * FileUtil#zipFileUsingPass(String, List, String)} that does everything on the caller thread.
+ */
+@UtilityClass
+public final class EncryptedZipArchiver {
+
+  /**
+   * Zip and encrypt files using the common fork-join pool and default options.
+   *
+   * @param route name for zipped file.
+   * @param filesToAdd files to compress, each one stored by its name.
+   * @param pass password.
+   * @return true if ok.
+   */
+  public static boolean zipFiles(String route, List<File> filesToAdd, String pass) {
+    return zipFiles(route, filesToAdd, pass, new ArchiveOptions(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Zip and encrypt files on the given executor.
+   *
+   * @param route name for zipped file.
+   * @param filesToAdd files to compress, each one stored by its name.
+   * @param pass password.
+   * @param options compression level, store only mode and buffers.
+   * @param executor where the entries are compressed and encrypted.
+   * @return true if ok.
+   */
+  public static boolean zipFiles(
+      String route,
+      List<File> filesToAdd,
+      String pass,
+      ArchiveOptions options,
+      ExecutorService executor) {
+    try {
+      List<Path> paths = filesToAdd.stream().map(File::toPath).collect(Collectors.toList());
+      return write(route, paths, null, pass, options, executor);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Zip and encrypt every file under a directory tree on the given executor.
+   *
+   * @param route name for zipped file.
+   * @param dir directory to compress, entries keep the path relative to it.
+   * @param pass password.
+   * @param options compression level, store only mode and buffers.
+   * @param executor where the entries are compressed and encrypted.
+   * @return true if ok.
+   */
+  public static boolean zipDirectory(
+      String route, String dir, String pass, ArchiveOptions options, ExecutorService executor) {
+    try {
+      Path root = Path.of(dir);
+      return write(route, ZipArchiver.listTree(root, route), root, pass, options, executor);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  private static boolean write(
+      String route,
+      List<Path> paths,
+      Path root,
+      String pass,
+      ArchiveOptions options,
+      ExecutorService executor)
+      throws IOException, InterruptedException {
+    AesEntryEncrypter encrypter = new AesEntryEncrypter(pass.toCharArray());
+    return ZipArchiver.write(
+        route,
+        paths,
+        root,
+        options.getByteBuffer(),
+        executor,
+        options.getMaxPending(),
+        (path, name) -> {
+          CompressedEntry entry =
+              ZipArchiver.compress(
+                  path,
+                  name,
+                  options.getByteBuffer(),
+                  options.getCompressionLevel(),
+                  options.isStoreOnly(),
+                  options.getSpillThreshold());
+          try {
+            return encrypter.encrypt(entry, options.getSpillThreshold());
+          } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+          } finally {
+            entry.discard();
+          }
+        });
+  }
+}
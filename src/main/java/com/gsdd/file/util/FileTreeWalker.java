@@ -0,0 +1,140 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileEntry;
+import com.gsdd.file.util.model.WalkOptions;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lists the regular files of a directory tree with their attributes, either with {@link
+ * Files#walkFileTree} or splitting the subtrees across a fork-join pool.
+ */
+@Slf4j
+@UtilityClass
+public final class FileTreeWalker {
+
+  /**
+   * Get the regular files under route. Unreadable directories are logged and skipped.
+   *
+   * @param route root of the tree.
+   * @param options depth, filter and parallel mode.
+   * @return files found, in no particular order.
+   */
+  public static List<FileEntry> walk(String route, WalkOptions options) {
+    Path root = Path.of(route);
+    PathMatcher matcher =
+        options.getPattern() != null
+            ? root.getFileSystem().getPathMatcher(options.getPattern())
+            : null;
+    Predicate<Path> accept = path -> matcher == null || matcher.matches(root.relativize(path));
+    if (options.isParallel()) {
+      return options
+          .getPoolOrDefault()
+          .invoke(new DirectoryTask(root, 1, options.getMaxDepth(), accept));
+    }
+    List<FileEntry> entries = new ArrayList<>();
+    try {
+      Files.walkFileTree(
+          root,
+          EnumSet.noneOf(FileVisitOption.class),
+          options.getMaxDepth(),
+          new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              if (attrs.isRegularFile() && accept.test(file)) {
+                entries.add(toEntry(file, attrs));
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+              log.warn("Skipping {}: {}", file, exc.getMessage());
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+    return entries;
+  }
+
+  private static FileEntry toEntry(Path path, BasicFileAttributes attrs) {
+    return new FileEntry(
+        path, attrs.size(), attrs.lastModifiedTime().toMillis(), attrs.isRegularFile());
+  }
+
+  /** Lists one directory and forks a task per subdirectory. */
+  private static final class DirectoryTask extends RecursiveTask<List<FileEntry>> {
+
+    private static final long serialVersionUID = 1L;
+    private final transient Path dir;
+    private final int depth;
+    private final int maxDepth;
+    private final transient Predicate<Path> accept;
+
+    DirectoryTask(Path dir, int depth, int maxDepth, Predicate<Path> accept) {
+      this.dir = dir;
+      this.depth = depth;
+      this.maxDepth = maxDepth;
+      this.accept = accept;
+    }
+
+    @Override
+    protected List<FileEntry> compute() {
+      List<FileEntry> entries = new ArrayList<>();
+      List<DirectoryTask> subtasks = new ArrayList<>();
+      if (depth > maxDepth) {
+        return entries;
+      }
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+        for (Path path : stream) {
+          BasicFileAttributes attrs = readAttributes(path);
+          if (attrs == null) {
+            continue;
+          }
+          if (attrs.isDirectory() && depth < maxDepth) {
+            DirectoryTask task = new DirectoryTask(path, depth + 1, maxDepth, accept);
+            task.fork();
+            subtasks.add(task);
+          } else if (attrs.isRegularFile() && accept.test(path)) {
+            entries.add(toEntry(path, attrs));
+          }
+        }
+      } catch (IOException e) {
+        log.warn("Skipping {}: {}", dir, e.getMessage());
+      }
+      for (int i = subtasks.size() - 1; i >= NumericConstants.ZERO; i--) {
+        entries.addAll(subtasks.get(i).join());
+      }
+      return entries;
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+      try {
+        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      } catch (IOException e) {
+        log.warn("Skipping {}: {}", path, e.getMessage());
+        return null;
+      }
+    }
+  }
+}
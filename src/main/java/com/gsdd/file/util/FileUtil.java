@@ -2,17 +2,29 @@ package com.gsdd.file.util;
 
 import com.gsdd.constants.NumericConstants;
 import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.FileEntry;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.WalkOptions;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +36,9 @@ import net.lingala.zip4j.model.enums.EncryptionMethod;
 @UtilityClass
 public final class FileUtil {
 
+  static final Comparator<FileEntry> BY_LAST_MODIFIED =
+      Comparator.comparingLong(FileEntry::getLastModified).thenComparing(FileEntry::getPath);
+
   /**
    * Check if dir exists, and create it if necessary.
    *
@@ -63,10 +78,9 @@ public final class FileUtil {
   public static void deleteEmptyFiles(String route) {
     try {
       File fr = generateFileFromRoute(route);
-      File[] filesOnDir = getFilesFromDir(fr);
-      Stream.of(filesOnDir)
-          .filter(file -> file.isFile() && file.length() == NumericConstants.ZERO)
-          .forEach(FileUtil::deleteFile);
+      getFileEntries(fr.getPath()).stream()
+          .filter(entry -> entry.isRegularFile() && entry.getSize() == NumericConstants.ZERO)
+          .forEach(entry -> deleteFile(entry.toFile()));
     } catch (Exception e) {
       throw new TechnicalException(e);
     }
@@ -74,8 +88,51 @@ public final class FileUtil {
 
   public static List<File> getFilesSortedByLastModification(String route) {
     File f = generateFileFromRoute(route);
-    Comparator<File> fileComparator = Comparator.comparingLong(File::lastModified);
-    return Stream.of(getFilesFromDir(f)).sorted(fileComparator).collect(Collectors.toList());
+    return getFileEntries(f.getPath()).stream()
+        .sorted(BY_LAST_MODIFIED)
+        .map(FileEntry::toFile)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Get the entries of a dir reading the attributes of each one just once.
+   *
+   * @param route
+   * @return entries in directory order, empty if route is not a directory.
+   */
+  public static List<FileEntry> getFileEntries(String route) {
+    Path dir = Path.of(route);
+    List<FileEntry> entries = new ArrayList<>();
+    if (!Files.isDirectory(dir)) {
+      return entries;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      for (Path path : stream) {
+        Optional.ofNullable(readEntry(path)).ifPresent(entries::add);
+      }
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+    return entries;
+  }
+
+  /**
+   * Lazy listing of a dir, entries are read while the stream is consumed so huge dirs can be
+   * processed in constant memory. The stream must be closed, e.g. with try-with-resources.
+   *
+   * @param route
+   * @return entries of the dir.
+   */
+  public static Stream<FileEntry> streamFiles(String route) {
+    try {
+      DirectoryStream<Path> stream = Files.newDirectoryStream(Path.of(route));
+      return StreamSupport.stream(stream.spliterator(), false)
+          .map(FileUtil::readEntry)
+          .filter(Objects::nonNull)
+          .onClose(() -> IoUtils.closeQuietly(stream));
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
   }
 
   /**
@@ -88,14 +145,16 @@ public final class FileUtil {
   public static boolean deleteOldFiles(String route, int backup) {
     boolean deleted;
     try {
-      List<File> filesOnDir = getFilesSortedByLastModification(route);
+      File fr = generateFileFromRoute(route);
+      List<FileEntry> filesOnDir =
+          getFileEntries(fr.getPath()).stream().sorted(BY_LAST_MODIFIED).toList();
       int currentSize = filesOnDir.size();
       int size = filesOnDir.size();
-      for (File f : filesOnDir) {
+      for (FileEntry f : filesOnDir) {
         if (size == backup) {
           break;
         }
-        if (f.isFile() && deleteFile(f)) {
+        if (f.isRegularFile() && deleteFile(f.toFile())) {
           size--;
         }
       }
@@ -106,6 +165,39 @@ public final class FileUtil {
     return deleted;
   }
 
+  /**
+   * Delete the files of route outside of the retention policy, in a single pass over the dir.
+   *
+   * @param route
+   * @param policy what to keep.
+   * @return how many files were deleted.
+   */
+  public static int deleteOldFiles(String route, RetentionPolicy policy) {
+    Path dir = generateFileFromRoute(route).toPath();
+    int[] deleted = {NumericConstants.ZERO};
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      Iterator<FileEntry> entries =
+          StreamSupport.stream(stream.spliterator(), false)
+              .map(FileUtil::readEntry)
+              .filter(entry -> entry != null && entry.isRegularFile())
+              .iterator();
+      RetentionEngine.apply(
+          entries,
+          FileEntry::getLastModified,
+          FileEntry::getSize,
+          policy,
+          System.currentTimeMillis(),
+          entry -> {
+            if (deleteFile(entry.toFile())) {
+              deleted[0]++;
+            }
+          });
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+    return deleted[0];
+  }
+
   public static File getLastModifiedFile(String ruta) {
     try {
       List<File> filesOnDir = getFilesSortedByLastModification(ruta);
@@ -115,6 +207,56 @@ public final class FileUtil {
     }
   }
 
+  /**
+   * Delete 0B size files in the whole tree under route.
+   *
+   * @param route
+   * @param options depth, filter and parallel mode.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport deleteEmptyFiles(String route, WalkOptions options) {
+    List<FileEntry> empty =
+        FileTreeWalker.walk(route, options).stream()
+            .filter(entry -> entry.getSize() == NumericConstants.ZERO)
+            .toList();
+    return BulkDeleter.delete(empty, deleteConcurrency(options));
+  }
+
+  /**
+   * Delete the files outside of the retention policy in the whole tree under route, the policy
+   * is applied to the tree as a whole.
+   *
+   * @param route
+   * @param policy what to keep.
+   * @param options depth, filter and parallel mode.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport deleteOldFiles(
+      String route, RetentionPolicy policy, WalkOptions options) {
+    List<FileEntry> expired =
+        RetentionEngine.selectExpired(
+            FileTreeWalker.walk(route, options),
+            FileEntry::getLastModified,
+            FileEntry::getSize,
+            policy,
+            System.currentTimeMillis());
+    return BulkDeleter.delete(expired, deleteConcurrency(options));
+  }
+
+  /**
+   * Get the last modified file in the whole tree under route.
+   *
+   * @param route
+   * @param options depth, filter and parallel mode.
+   * @return the file or null if there are no files.
+   */
+  public static File getLastModifiedFile(String route, WalkOptions options) {
+    return FileTreeWalker.walk(route, options).stream()
+        .max(BY_LAST_MODIFIED)
+        .map(FileEntry::toFile)
+        .orElse(null);
+  }
+
   public static boolean deleteFile(File f) {
     boolean b = false;
     if (f != null && f.exists()) {
@@ -128,6 +270,14 @@ public final class FileUtil {
     return b;
   }
 
+  /**
+   * Zip files with AES encryption using zip4j, everything runs on the caller thread.
+   *
+   * @see EncryptedZipArchiver for a parallel version.
+   * @param route name for zipped file.
+   * @param filesToAdd files to compress.
+   * @param pass password.
+   */
   public static void zipFileUsingPass(String route, List<File> filesToAdd, String pass) {
     // This is name and path of zip file to be created
     try (ZipFile externalZipFile = new ZipFile(route, pass.toCharArray()); ) {
@@ -174,41 +324,40 @@ public final class FileUtil {
   /**
    * Unzip a zipped file
    *
+   * @see ZipExtractor#unzip(String, String, int)
    * @param inputZip zipped file.
    * @param outDir output for files.
    * @param byteBuffer buffer for unzip.
    * @return true no error.
    */
   public static boolean unzipFile(String inputZip, String outDir, int byteBuffer) {
-    FileOutputStream fos = null;
-    try (FileInputStream fis = new FileInputStream(inputZip);
-        ZipInputStream zis = new ZipInputStream(fis)) {
-      ZipEntry zipFile = null;
-      while ((zipFile = zis.getNextEntry()) != null) {
-        File fileExtracted = new File(outDir + File.separator + zipFile.getName());
-        fos = new FileOutputStream(fileExtracted);
-        byte[] buffer = new byte[byteBuffer];
-        int read;
-        while ((read = zis.read(buffer, NumericConstants.ZERO, buffer.length))
-            != NumericConstants.ZERO) {
-          fos.write(buffer, NumericConstants.ZERO, read);
-        }
-        fos.flush();
-        IoUtils.closeQuietly(fos);
-      }
-      return true;
-    } catch (Exception e) {
-      throw new TechnicalException(e);
-    } finally {
-      IoUtils.closeQuietly(fos);
-    }
+    ZipExtractor.unzip(inputZip, outDir, byteBuffer);
+    return true;
   }
 
   private static File generateFileFromRoute(String path) {
     return new File(path);
   }
 
-  private static File[] getFilesFromDir(File fr) {
-    return Optional.ofNullable(fr.listFiles()).orElseGet(() -> new File[0]);
+  private static int deleteConcurrency(WalkOptions options) {
+    return options.isParallel() ? options.getPoolOrDefault().getParallelism() : 1;
+  }
+
+  /**
+   * Read the attributes of a path in a single call.
+   *
+   * @param path
+   * @return the entry or null if it was removed meanwhile.
+   */
+  static FileEntry readEntry(Path path) {
+    try {
+      BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+      return new FileEntry(
+          path, attrs.size(), attrs.lastModifiedTime().toMillis(), attrs.isRegularFile());
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
   }
 }
@@ -0,0 +1,105 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.FtpPoolOptions;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Uploads many files to a FTP server over parallel sessions. {@code FTPClient} is not thread safe,
+ * so each worker keeps its own pooled session and takes the next file from the queue of a {@link
+ * BatchRunner}.
+ */
+@UtilityClass
+public final class FtpBatchUploader {
+
+  /**
+   * Upload the files using a pool that lives only for this batch.
+   *
+   * @param ftpFile connection data.
+   * @param transfers local and remote route of each file.
+   * @param options concurrency and retries.
+   * @return result per file.
+   */
+  public static TransferReport upload(
+      UploadableFtpFile ftpFile, List<FileTransfer> transfers, TransferOptions options) {
+    FtpPoolOptions poolOptions = new FtpPoolOptions();
+    poolOptions.setMaxTotal(options.getConcurrency());
+    poolOptions.setMaxIdle(options.getConcurrency());
+    poolOptions.setEvictionInterval(null);
+    try (FtpSessionPool pool = new FtpSessionPool(poolOptions)) {
+      return upload(pool, ftpFile, transfers, options);
+    }
+  }
+
+  /**
+   * Upload the files with sessions leased from the pool.
+   *
+   * @param pool sessions, it should allow at least the concurrency of the options per server.
+   * @param ftpFile connection data.
+   * @param transfers local and remote route of each file.
+   * @param options concurrency and retries.
+   * @return result per file.
+   */
+  public static TransferReport upload(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      List<FileTransfer> transfers,
+      TransferOptions options) {
+    return BatchRunner.run(transfers, options, () -> new Uploader(pool, ftpFile));
+  }
+
+  /**
+   * Uploads with a session leased on first use and kept for the next files, a failed session is
+   * dropped so the next attempt gets a new one.
+   */
+  private static final class Uploader implements BatchRunner.Worker {
+
+    private final FtpSessionPool pool;
+    private final UploadableFtpFile ftpFile;
+    private FtpSession session;
+
+    Uploader(FtpSessionPool pool, UploadableFtpFile ftpFile) {
+      this.pool = pool;
+      this.ftpFile = ftpFile;
+    }
+
+    @Override
+    public long transfer(FileTransfer transfer) throws IOException {
+      if (session == null) {
+        try {
+          session = pool.borrow(ftpFile);
+        } catch (RuntimeException e) {
+          throw new BatchRunner.Unavailable("No session available: " + e.getMessage());
+        }
+      }
+      boolean stored;
+      try {
+        stored =
+            FtpUtil.transferFileIs(
+                session.getClient(), transfer.getLocalRoute(), transfer.getRemoteRoute());
+      } catch (RuntimeException e) {
+        session.invalidate();
+        close();
+        throw e;
+      }
+      if (!stored) {
+        throw new IOException(session.getClient().getReplyString());
+      }
+      return new File(transfer.getLocalRoute()).length();
+    }
+
+    @Override
+    public void close() {
+      if (session != null) {
+        session.close();
+        session = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.net.ftp.FTPFile;
+
+/**
+ * Deletes many remote files spreading the DELE commands over several pooled sessions, so the
+ * round-trip of each reply overlaps with the others instead of adding up.
+ */
+@UtilityClass
+public final class FtpBulkDeleter {
+
+  /** Borrows in a row that may fail before the server is taken as unavailable. */
+  private static final int BORROW_ATTEMPTS = 2;
+
+  /**
+   * Delete the given files of a directory.
+   *
+   * @param pool sessions, it should allow at least concurrency sessions per server.
+   * @param ftpFile connection data.
+   * @param directory remote dir, ending with the separator like in {@link FtpUtil}.
+   * @param files entries of the dir to delete, their size is reported as freed.
+   * @param concurrency sessions used at the same time.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport delete(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      String directory,
+      Collection<FTPFile> files,
+      int concurrency) {
+    DeletionCounter counter = new DeletionCounter();
+    Queue<FTPFile> queue = new ConcurrentLinkedQueue<>(files);
+    AtomicReference<String> unavailable = new AtomicReference<>();
+    int workers = Math.clamp(concurrency, 1, Math.max(1, files.size()));
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < workers; i++) {
+        executor.execute(() -> work(pool, ftpFile, directory, queue, counter, unavailable));
+      }
+    }
+    return counter.toReport();
+  }
+
+  /**
+   * Delete the files of a directory accepted by the filter.
+   *
+   * @param pool sessions, it should allow at least concurrency sessions per server.
+   * @param ftpFile connection data.
+   * @param directory remote dir, ending with the separator like in {@link FtpUtil}.
+   * @param filter which files to delete.
+   * @param concurrency sessions used at the same time.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport delete(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      String directory,
+      Predicate<FTPFile> filter,
+      int concurrency) {
+    List<FTPFile> files =
+        Arrays.stream(list(pool, ftpFile, directory))
+            .filter(file -> file.isFile() && filter.test(file))
+            .toList();
+    return delete(pool, ftpFile, directory, files, concurrency);
+  }
+
+  /**
+   * Delete the files of a directory outside of the retention policy. Entries the parser can't date
+   * are always kept.
+   *
+   * @param pool sessions, it should allow at least concurrency sessions per server.
+   * @param ftpFile connection data.
+   * @param directory remote dir, ending with the separator like in {@link FtpUtil}.
+   * @param policy what to keep.
+   * @param concurrency sessions used at the same time.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport deleteOldFiles(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      String directory,
+      RetentionPolicy policy,
+      int concurrency) {
+    List<FTPFile> files =
+        Arrays.stream(list(pool, ftpFile, directory))
+            .filter(file -> file.isFile() && file.getTimestamp() != null)
+            .toList();
+    List<FTPFile> expired =
+        RetentionEngine.selectExpired(
+            files,
+            file -> file.getTimestamp().getTimeInMillis(),
+            FTPFile::getSize,
+            policy,
+            System.currentTimeMillis());
+    return delete(pool, ftpFile, directory, expired, concurrency);
+  }
+
+  private static FTPFile[] list(FtpSessionPool pool, UploadableFtpFile ftpFile, String directory) {
+    try (FtpSession session = pool.borrow(ftpFile)) {
+      FTPFile[] files = session.getClient().listFiles(directory);
+      return files != null ? files : new FTPFile[0];
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Delete files from the queue until it's empty. When a session can't be borrowed {@link
+   * #BORROW_ATTEMPTS} times in a row the server is taken as unavailable and the rest of the queue
+   * is failed without waiting on the pool again.
+   */
+  private static void work(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      String directory,
+      Queue<FTPFile> queue,
+      DeletionCounter counter,
+      AtomicReference<String> unavailable) {
+    FtpSession session = null;
+    int borrowFailures = 0;
+    try {
+      FTPFile file;
+      while ((file = queue.poll()) != null) {
+        String route = directory + file.getName();
+        if (unavailable.get() != null) {
+          counter.failed(route, unavailable.get());
+          continue;
+        }
+        if (session == null) {
+          try {
+            session = pool.borrow(ftpFile);
+            borrowFailures = 0;
+          } catch (RuntimeException e) {
+            counter.failed(route, e);
+            if (++borrowFailures >= BORROW_ATTEMPTS) {
+              unavailable.compareAndSet(null, "No session available: " + e.getMessage());
+            }
+            continue;
+          }
+        }
+        try {
+          if (session.getClient().deleteFile(route)) {
+            counter.deleted(Math.max(file.getSize(), 0L));
+          } else {
+            counter.failed(route, session.getClient().getReplyString());
+          }
+        } catch (Exception e) {
+          counter.failed(route, e);
+          session.invalidate();
+          session.close();
+          session = null;
+        }
+      }
+    } finally {
+      if (session != null) {
+        session.close();
+      }
+    }
+  }
+}
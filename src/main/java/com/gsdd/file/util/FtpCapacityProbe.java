@@ -0,0 +1,207 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.FileConstants;
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.CapacityOptions;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPReply;
+
+/**
+ * Finds the free space of a FTP target. Servers expose it in different ways, so it tries the AVBL
+ * command, then the configured SITE commands, then the STAT reply and finally a configured
+ * estimate. Only well-defined replies are trusted: "213 bytes" for AVBL, the configured format of
+ * each SITE command and a free space phrase on the non-listing lines of STAT. The method that
+ * worked is remembered per server and results are cached for a short TTL, so checking before every
+ * batch costs at most one command. A server where no method worked is probed again once its result
+ * expires.
+ */
+@Slf4j
+public class FtpCapacityProbe {
+
+  private static final int STAT = Integer.MAX_VALUE;
+  private static final int NONE = NumericConstants.MINUS_ONE;
+  private static final String AVBL = "AVBL";
+  private static final int AVBL_REPLY = 213;
+  private static final Pattern AVBL_BYTES = Pattern.compile("213 (\\d+)\\s*");
+  private static final Pattern FREE_SPACE =
+      Pattern.compile(CapacityOptions.FREE_SPACE, Pattern.CASE_INSENSITIVE);
+  private static final Pattern REPLY_CODE = Pattern.compile("^\\d{3}[- ]");
+
+  /** Entry of an unix, windows or MLSD listing, its name may look like a free space phrase. */
+  private static final Pattern LISTING =
+      Pattern.compile(
+          "^\\s*(?:[-dlbcps][-rwxsStT]{9}|\\d{2}-\\d{2}-\\d{2,4}\\s|(?:[\\w.-]+=[^;]*;)+)");
+
+  private static final String UNITS = "KMGTP";
+
+  private final CapacityOptions options;
+  private final Map<String, Integer> methods = new ConcurrentHashMap<>();
+  private final Map<String, Probe> probes = new ConcurrentHashMap<>();
+  private final Map<String, Pattern> formats = new ConcurrentHashMap<>();
+
+  public FtpCapacityProbe(CapacityOptions options) {
+    this.options = options;
+  }
+
+  /**
+   * Free bytes on the dir of the server.
+   *
+   * @param ftpFile connection data, identifies the server.
+   * @param client logged-in session.
+   * @param ftpDir remote dir.
+   * @return free bytes, the fallback estimate if the server can't tell.
+   */
+  public long getAvailableSpace(UploadableFtpFile ftpFile, FTPClient client, String ftpDir) {
+    String server = FtpSessionPool.Key.of(ftpFile).toString();
+    String key = server + FileConstants.FTP_SEPARATOR + ftpDir;
+    long now = System.nanoTime();
+    Probe probe = probes.get(key);
+    if (probe != null && now - probe.created() < options.getTtl().toNanos()) {
+      return probe.bytes();
+    }
+    long bytes = probe(server, client, ftpDir);
+    probes.put(key, new Probe(bytes, now));
+    return bytes;
+  }
+
+  /** Forget cached results and the methods known to work. */
+  public void clear() {
+    probes.clear();
+    methods.clear();
+  }
+
+  private long probe(String server, FTPClient client, String ftpDir) {
+    try {
+      Integer known = methods.get(server);
+      if (known != null) {
+        long bytes = run(known, client, ftpDir);
+        if (bytes >= NumericConstants.ZERO) {
+          return bytes;
+        }
+        methods.remove(server);
+      }
+      List<String> commands = options.getCommands();
+      for (int i = 0; i < commands.size(); i++) {
+        long bytes = run(i, client, ftpDir);
+        if (bytes >= NumericConstants.ZERO) {
+          methods.put(server, i);
+          return bytes;
+        }
+      }
+      long bytes = options.isUseStat() ? run(STAT, client, ftpDir) : NONE;
+      if (bytes >= NumericConstants.ZERO) {
+        methods.put(server, STAT);
+      }
+      return orEstimate(bytes);
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  private long run(int method, FTPClient client, String ftpDir) throws IOException {
+    if (method == STAT) {
+      String status = client.getStatus(ftpDir);
+      return status != null ? parseStat(status) : NONE;
+    }
+    String command = options.getCommands().get(method).trim();
+    boolean avbl = AVBL.equalsIgnoreCase(command);
+    Pattern format = avbl ? AVBL_BYTES : format(command);
+    if (format == null) {
+      log.debug("{} has no reply format", command);
+      return NONE;
+    }
+    String[] parts = command.split("\\s+", 2);
+    String args = parts.length > 1 ? parts[1] + " " + ftpDir : ftpDir;
+    int reply = client.sendCommand(parts[0], args);
+    if (avbl ? reply != AVBL_REPLY : !FTPReply.isPositiveCompletion(reply)) {
+      log.debug("{} not supported: {}", command, reply);
+      return NONE;
+    }
+    String[] lines = client.getReplyStrings();
+    if (avbl) {
+      return lines.length == 1 ? parseAvbl(lines[0]) : NONE;
+    }
+    for (String line : lines) {
+      long bytes = parse(format, REPLY_CODE.matcher(line).replaceFirst(""));
+      if (bytes >= NumericConstants.ZERO) {
+        return bytes;
+      }
+    }
+    return NONE;
+  }
+
+  private Pattern format(String command) {
+    String regex = options.getReplyFormats().get(command);
+    return regex == null
+        ? null
+        : formats.computeIfAbsent(regex, key -> Pattern.compile(key, Pattern.CASE_INSENSITIVE));
+  }
+
+  private long orEstimate(long bytes) {
+    return bytes >= NumericConstants.ZERO ? bytes : options.getFallbackEstimate();
+  }
+
+  /**
+   * @param line AVBL reply.
+   * @return bytes if the line is exactly "213 bytes", -1 otherwise.
+   */
+  static long parseAvbl(String line) {
+    Matcher matcher = AVBL_BYTES.matcher(line);
+    return matcher.matches() ? Long.parseLong(matcher.group(1)) : NONE;
+  }
+
+  /**
+   * @param text STAT reply.
+   * @return bytes of the first free space phrase outside of the listing lines, -1 if none.
+   */
+  static long parseStat(String text) {
+    String[] lines = text.split("\\R");
+    for (int i = 0; i < lines.length; i++) {
+      // only the first and last lines of a multiline reply start with the code
+      String content =
+          i == 0 || i == lines.length - 1
+              ? REPLY_CODE.matcher(lines[i]).replaceFirst("")
+              : lines[i];
+      if (!LISTING.matcher(content).find()) {
+        long bytes = parse(FREE_SPACE, content);
+        if (bytes >= NumericConstants.ZERO) {
+          return bytes;
+        }
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * @return bytes of the first match, -1 if none.
+   */
+  private static long parse(Pattern pattern, String text) {
+    Matcher matcher = pattern.matcher(text);
+    if (matcher.groupCount() == NumericConstants.ZERO || !matcher.find()) {
+      return NONE;
+    }
+    int group = 1;
+    while (group < matcher.groupCount() && matcher.group(group) == null) {
+      group++;
+    }
+    if (matcher.group(group) == null) {
+      return NONE;
+    }
+    double value = Double.parseDouble(matcher.group(group));
+    String unit = group < matcher.groupCount() ? matcher.group(group + 1) : null;
+    int power = unit != null ? UNITS.indexOf(unit.toUpperCase(Locale.ROOT)) + 1 : 0;
+    return (long) (value * Math.pow(FileConstants.NUM_1024, power));
+  }
+
+  private record Probe(long bytes, long created) {}
+}
@@ -0,0 +1,183 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.FileConstants;
+import com.gsdd.constants.NumericConstants;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.Getter;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
+
+/**
+ * Listings of remote directories cached for a while on top of a single FTP session. Listings use
+ * MLSD when the server announces MLST on FEAT, its facts are machine readable so no locale
+ * dependent LIST parsing is involved. Stores and deletes done through the cache drop the listing
+ * of the affected directory; changes made by other clients are seen once the TTL expires.
+ *
+ * <p>Not thread safe, like the {@link FTPClient} it wraps.
+ */
+public class FtpListingCache {
+
+  private static final String MLST = "MLST";
+  private static final String CURRENT_DIR = ".";
+  private static final String PARENT_DIR = "..";
+
+  @Getter private final FTPClient client;
+  private final long ttl;
+  private final Map<String, Listing> listings = new HashMap<>();
+  private Boolean mlsd;
+
+  /**
+   * Build a cache for a logged-in client.
+   *
+   * @param client session.
+   * @param ttl how long a listing is reused.
+   */
+  public FtpListingCache(FTPClient client, Duration ttl) {
+    this.client = client;
+    this.ttl = ttl.toNanos();
+  }
+
+  /**
+   * Entries of a directory, without "." and "..".
+   *
+   * @param dir remote directory.
+   * @return cached entries while fresh, otherwise a new listing.
+   * @throws IOException on listing error.
+   */
+  public FTPFile[] list(String dir) throws IOException {
+    String key = key(dir);
+    Listing listing = listings.get(key);
+    long now = System.nanoTime();
+    if (listing == null || now - listing.created() >= ttl) {
+      FTPFile[] files = isMlsdSupported() ? client.mlistDir(dir) : client.listFiles(dir);
+      listing =
+          new Listing(
+              files == null
+                  ? new FTPFile[0]
+                  : Arrays.stream(files)
+                      .filter(Objects::nonNull)
+                      .filter(file -> !isDotEntry(file.getName()))
+                      .toArray(FTPFile[]::new),
+              now);
+      listings.put(key, listing);
+    }
+    return listing.files().clone();
+  }
+
+  /**
+   * @param dir remote directory.
+   * @return true if the parent listing has a directory with that name.
+   * @throws IOException on listing error.
+   */
+  public boolean isDirectory(String dir) throws IOException {
+    String name = name(dir);
+    return Arrays.stream(list(parent(dir)))
+        .anyMatch(file -> file.isDirectory() && name.equals(file.getName()));
+  }
+
+  /**
+   * Create a directory, dropping the listing of its parent.
+   *
+   * @param dir remote directory.
+   * @return true if created.
+   * @throws IOException on FTP error.
+   */
+  public boolean makeDirectory(String dir) throws IOException {
+    invalidate(parent(dir));
+    return client.makeDirectory(dir);
+  }
+
+  /**
+   * Store a file, dropping the listing of its directory.
+   *
+   * @param ftpRoute remote file.
+   * @param is content.
+   * @return true if stored.
+   * @throws IOException on FTP error.
+   */
+  public boolean storeFile(String ftpRoute, InputStream is) throws IOException {
+    invalidate(parent(ftpRoute));
+    return client.storeFile(ftpRoute, is);
+  }
+
+  /**
+   * Delete a file, dropping the listing of its directory.
+   *
+   * @param ftpRoute remote file.
+   * @return true if deleted.
+   * @throws IOException on FTP error.
+   */
+  public boolean deleteFile(String ftpRoute) throws IOException {
+    invalidate(parent(ftpRoute));
+    return client.deleteFile(ftpRoute);
+  }
+
+  /**
+   * Drop the listing of a directory.
+   *
+   * @param dir remote directory.
+   */
+  public void invalidate(String dir) {
+    listings.remove(key(dir));
+  }
+
+  /** Drop every listing. */
+  public void invalidateAll() {
+    listings.clear();
+  }
+
+  /**
+   * @return true if the server lists with MLSD, asked once per cache with FEAT.
+   * @throws IOException on FTP error.
+   */
+  public boolean isMlsdSupported() throws IOException {
+    if (mlsd == null) {
+      mlsd = client.hasFeature(MLST);
+    }
+    return mlsd;
+  }
+
+  /**
+   * @param dir remote directory.
+   * @return route without trailing separators, "." for the working directory.
+   */
+  static String key(String dir) {
+    String key = dir;
+    while (key.length() > 1 && key.endsWith(FileConstants.FTP_SEPARATOR)) {
+      key = key.substring(0, key.length() - 1);
+    }
+    return key.isEmpty() ? CURRENT_DIR : key;
+  }
+
+  /**
+   * @param route remote file or directory.
+   * @return directory holding it, "." for a relative route without separator.
+   */
+  static String parent(String route) {
+    String key = key(route);
+    int separator = key.lastIndexOf(FileConstants.FTP_SEPARATOR);
+    if (separator < NumericConstants.ZERO) {
+      return CURRENT_DIR;
+    }
+    return separator == NumericConstants.ZERO
+        ? FileConstants.FTP_SEPARATOR
+        : key.substring(0, separator);
+  }
+
+  private static String name(String route) {
+    String key = key(route);
+    return key.substring(key.lastIndexOf(FileConstants.FTP_SEPARATOR) + 1);
+  }
+
+  private static boolean isDotEntry(String name) {
+    return CURRENT_DIR.equals(name) || PARENT_DIR.equals(name);
+  }
+
+  private record Listing(FTPFile[] files, long created) {}
+}
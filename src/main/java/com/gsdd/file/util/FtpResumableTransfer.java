@@ -0,0 +1,267 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ftp.FTPClient;
+
+/**
+ * FTP uploads and downloads that carry on from where a previous attempt stopped instead of from
+ * byte zero. Uploads ask the server how much it already has and append the rest with APPE,
+ * downloads restart with REST from the local length. A {@link TransferJournal} ties partial files
+ * to the version of the source they came from, so a partial file is never completed with data of
+ * a newer source.
+ */
+@Slf4j
+@UtilityClass
+public final class FtpResumableTransfer {
+
+  private static final String UPLOAD = "upload:";
+  private static final String DOWNLOAD = "download:";
+
+  /**
+   * Upload a file, appending to the remote one if a previous attempt of the same local file left
+   * it partial.
+   *
+   * @param client
+   * @param transfer local source and remote target.
+   * @param journal checkpoints.
+   * @param options buffer and checkpoint interval.
+   * @return true if the server confirmed the upload.
+   */
+  public static boolean upload(
+      FTPClient client, FileTransfer transfer, TransferJournal journal, TransferOptions options) {
+    String key = UPLOAD + transfer.getLocalRoute() + ">" + transfer.getRemoteRoute();
+    Path local = Path.of(transfer.getLocalRoute());
+    try (FileChannel source = FileChannel.open(local, StandardOpenOption.READ)) {
+      long size = source.size();
+      String tag = size + "@" + Files.getLastModifiedTime(local).toMillis();
+      long offset = NumericConstants.ZERO;
+      if (journal.getOffset(key, tag) >= NumericConstants.ZERO) {
+        // the server may have got more than the last checkpoint, it knows best
+        long remote = FtpUtil.getRemoteSize(client, transfer.getRemoteRoute());
+        offset = remote <= size ? Math.max(remote, NumericConstants.ZERO) : NumericConstants.ZERO;
+      }
+      journal.checkpoint(key, tag, offset);
+      if (offset == size && offset > NumericConstants.ZERO) {
+        journal.complete(key);
+        return true;
+      }
+      source.position(offset);
+      OutputStream os =
+          offset > NumericConstants.ZERO
+              ? client.appendFileStream(transfer.getRemoteRoute())
+              : client.storeFileStream(transfer.getRemoteRoute());
+      if (os == null) {
+        log.warn("Upload of {} refused: {}", transfer.getLocalRoute(), client.getReplyString());
+        return false;
+      }
+      try (WritableByteChannel target = Channels.newChannel(os)) {
+        copy(source, target, offset, options, position -> journal.checkpoint(key, tag, position));
+      }
+      boolean completed = client.completePendingCommand();
+      if (completed) {
+        journal.complete(key);
+      }
+      return completed;
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Download a file, restarting from the local length if a previous attempt of the same remote
+   * file left it partial.
+   *
+   * @param client
+   * @param transfer local target and remote source.
+   * @param journal checkpoints.
+   * @param options buffer and checkpoint interval.
+   * @return true if the server confirmed the download.
+   */
+  public static boolean download(
+      FTPClient client, FileTransfer transfer, TransferJournal journal, TransferOptions options) {
+    String key = DOWNLOAD + transfer.getRemoteRoute() + ">" + transfer.getLocalRoute();
+    Path local = Path.of(transfer.getLocalRoute());
+    try (FileChannel target =
+        FileChannel.open(local, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      long size = FtpUtil.getRemoteSize(client, transfer.getRemoteRoute());
+      String tag = size + "@" + client.getModificationTime(transfer.getRemoteRoute());
+      // bytes after the last checkpoint may not have reached the disk before a crash
+      long offset =
+          Math.min(target.size(), Math.max(journal.getOffset(key, tag), NumericConstants.ZERO));
+      target.truncate(offset);
+      journal.checkpoint(key, tag, offset);
+      if (offset == size && offset > NumericConstants.ZERO) {
+        journal.complete(key);
+        return true;
+      }
+      client.setRestartOffset(offset);
+      InputStream is = client.retrieveFileStream(transfer.getRemoteRoute());
+      if (is == null) {
+        log.warn("Download of {} refused: {}", transfer.getRemoteRoute(), client.getReplyString());
+        return false;
+      }
+      try (ReadableByteChannel source = Channels.newChannel(is)) {
+        target.position(offset);
+        copy(
+            source,
+            target,
+            offset,
+            options,
+            position -> {
+              forceQuietly(target);
+              journal.checkpoint(key, tag, position);
+            });
+      }
+      boolean completed = client.completePendingCommand();
+      if (completed) {
+        target.force(false);
+        journal.complete(key);
+      }
+      return completed;
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Upload a file, retrying on a new session from the last byte the server got.
+   *
+   * @param pool sessions.
+   * @param ftpFile connection data.
+   * @param transfer local source and remote target.
+   * @param journal checkpoints.
+   * @param options buffer, checkpoint interval and retries.
+   * @return result of the upload.
+   */
+  public static TransferResult upload(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      FileTransfer transfer,
+      TransferJournal journal,
+      TransferOptions options) {
+    return withRetries(
+        pool, ftpFile, transfer, options, client -> upload(client, transfer, journal, options));
+  }
+
+  /**
+   * Download a file, retrying on a new session from the last byte stored.
+   *
+   * @param pool sessions.
+   * @param ftpFile connection data.
+   * @param transfer local target and remote source.
+   * @param journal checkpoints.
+   * @param options buffer, checkpoint interval and retries.
+   * @return result of the download.
+   */
+  public static TransferResult download(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      FileTransfer transfer,
+      TransferJournal journal,
+      TransferOptions options) {
+    return withRetries(
+        pool, ftpFile, transfer, options, client -> download(client, transfer, journal, options));
+  }
+
+  private static TransferResult withRetries(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      FileTransfer transfer,
+      TransferOptions options,
+      Attempt attempt) {
+    long start = System.nanoTime();
+    String error = null;
+    int attempts = NumericConstants.ZERO;
+    while (attempts <= options.getRetries()) {
+      if (attempts++ > NumericConstants.ZERO && !BatchRunner.pause(options.getRetryDelay())) {
+        break;
+      }
+      FtpSession session = null;
+      try {
+        session = pool.borrow(ftpFile);
+        if (attempt.run(session.getClient())) {
+          session.close();
+          return new TransferResult(
+              transfer,
+              true,
+              new File(transfer.getLocalRoute()).length(),
+              attempts,
+              null,
+              Duration.ofNanos(System.nanoTime() - start));
+        }
+        error = session.getClient().getReplyString();
+        session.close();
+      } catch (TechnicalException e) {
+        error = e.getMessage();
+        log.warn("Transfer of {} interrupted: {}", transfer.getLocalRoute(), error);
+        if (session != null) {
+          session.invalidate();
+          session.close();
+        }
+      }
+    }
+    return new TransferResult(
+        transfer, false, 0L, attempts, error, Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private static void copy(
+      ReadableByteChannel source,
+      WritableByteChannel target,
+      long offset,
+      TransferOptions options,
+      Checkpoint checkpoint)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(options.getBufferSize(), 1));
+    long position = offset;
+    long next = offset + Math.max(options.getCheckpointInterval(), 1L);
+    while (source.read(buffer) != NumericConstants.MINUS_ONE) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        position += target.write(buffer);
+      }
+      buffer.clear();
+      if (position >= next) {
+        checkpoint.reached(position);
+        next = position + Math.max(options.getCheckpointInterval(), 1L);
+      }
+    }
+  }
+
+  private static void forceQuietly(FileChannel channel) {
+    try {
+      channel.force(false);
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Attempt {
+    boolean run(FTPClient client);
+  }
+
+  @FunctionalInterface
+  private interface Checkpoint {
+    void reached(long position);
+  }
+}
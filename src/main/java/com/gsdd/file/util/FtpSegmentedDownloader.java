@@ -0,0 +1,130 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.net.ftp.FTPClient;
+
+/**
+ * Downloads a big file over several FTP sessions at once, each one fetching a byte range with REST
+ * and writing it at its position of a temp file (see {@link RangeDownloader}). On high latency
+ * links a single data connection is bound by the TCP window, parallel ranges fill the pipe.
+ */
+@UtilityClass
+public final class FtpSegmentedDownloader {
+
+  /**
+   * Download a file splitting it in up to concurrency ranges of at least the segment size. Files
+   * whose size the server doesn't report are downloaded on a single stream. A failed range is
+   * retried from the last byte written. The local file is left as it was if the download fails.
+   *
+   * @param pool sessions, it should allow at least the concurrency of the options per server.
+   * @param ftpFile connection data.
+   * @param transfer local target and remote source.
+   * @param options segments, buffer and retries.
+   * @return result of the download.
+   */
+  public static TransferResult download(
+      FtpSessionPool pool,
+      UploadableFtpFile ftpFile,
+      FileTransfer transfer,
+      TransferOptions options) {
+    long start = System.nanoTime();
+    String ftpRoute = transfer.getRemoteRoute();
+    long size;
+    FtpSession session = pool.borrow(ftpFile);
+    try {
+      size = FtpUtil.getRemoteSize(session.getClient(), ftpRoute);
+      if (size < NumericConstants.ZERO) {
+        boolean received =
+            RangeDownloader.replace(
+                transfer.getLocalRoute(),
+                temp -> FtpUtil.receiveFile(session.getClient(), temp.toString(), ftpRoute));
+        return RangeDownloader.result(
+            transfer, received, size, 1, received ? null : "Not received", start);
+      }
+    } catch (RuntimeException e) {
+      session.invalidate();
+      throw e;
+    } finally {
+      session.close();
+    }
+    return RangeDownloader.download(
+        transfer, size, position -> open(pool, ftpFile, ftpRoute, position), options);
+  }
+
+  /**
+   * Open the file at a position on a pooled session. The session goes back to the pool only if
+   * the stream reached the end of the file and the server confirmed the transfer.
+   */
+  private static InputStream open(
+      FtpSessionPool pool, UploadableFtpFile ftpFile, String ftpRoute, long position)
+      throws IOException {
+    FtpSession session = pool.borrow(ftpFile);
+    try {
+      FTPClient client = session.getClient();
+      client.setRestartOffset(position);
+      InputStream is = client.retrieveFileStream(ftpRoute);
+      if (is == null) {
+        throw new IOException(client.getReplyString());
+      }
+      return new RangeStream(is, session);
+    } catch (IOException | RuntimeException e) {
+      session.invalidate();
+      session.close();
+      throw e;
+    }
+  }
+
+  /** Data stream of a RETR, it completes the command and releases the session on close. */
+  private static final class RangeStream extends FilterInputStream {
+
+    private final FtpSession session;
+    private boolean eof;
+
+    private RangeStream(InputStream in, FtpSession session) {
+      super(in);
+      this.session = session;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      eof |= read == NumericConstants.MINUS_ONE;
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      eof |= read == NumericConstants.MINUS_ONE;
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      boolean complete = false;
+      try {
+        super.close();
+        if (eof) {
+          complete = session.getClient().completePendingCommand();
+          if (!complete) {
+            throw new IOException(session.getClient().getReplyString());
+          }
+        }
+      } finally {
+        if (!complete) {
+          // servers differ on the replies sent after an aborted RETR, don't reuse the session
+          session.invalidate();
+        }
+        session.close();
+      }
+    }
+  }
+}
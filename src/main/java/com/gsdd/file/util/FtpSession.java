@@ -0,0 +1,37 @@
+package com.gsdd.file.util;
+
+import lombok.Getter;
+import org.apache.commons.net.ftp.FTPClient;
+
+/**
+ * A logged-in {@link FTPClient} leased from a {@link FtpSessionPool}. Closing it gives the client
+ * back to the pool, it must not be disconnected by the caller.
+ */
+public class FtpSession implements AutoCloseable {
+
+  private final FtpSessionPool pool;
+  private final FtpSessionPool.Key key;
+  @Getter private final FTPClient client;
+  private boolean broken;
+  private boolean closed;
+
+  FtpSession(FtpSessionPool pool, FtpSessionPool.Key key, FTPClient client) {
+    this.pool = pool;
+    this.key = key;
+    this.client = client;
+  }
+
+  /** Mark the client as unusable (e.g. after an I/O error), so it's disconnected on close. */
+  public void invalidate() {
+    broken = true;
+  }
+
+  /** Give the client back to the pool. */
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      pool.release(key, client, broken);
+    }
+  }
+}
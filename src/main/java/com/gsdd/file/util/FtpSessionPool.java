@@ -0,0 +1,277 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FtpPoolOptions;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ftp.FTPClient;
+
+/**
+ * Thread safe pool of logged-in {@link FTPClient}, keyed by server, port and user, so batches to
+ * the same server skip the connect, login, PASV and TYPE handshake. Each client is used by one
+ * thread at a time through a {@link FtpSession}.
+ */
+@Slf4j
+public final class FtpSessionPool implements Closeable {
+
+  private final FtpPoolOptions options;
+  private final Supplier<FTPClient> clientFactory;
+  private final Map<Key, Slots> slots = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService evictor;
+  private volatile boolean closed;
+
+  public FtpSessionPool(FtpPoolOptions options) {
+    this(options, FTPClient::new);
+  }
+
+  /**
+   * Build a pool.
+   *
+   * @param options sizes and timeouts.
+   * @param clientFactory creates the clients, to customise buffers or timeouts before connect.
+   */
+  public FtpSessionPool(FtpPoolOptions options, Supplier<FTPClient> clientFactory) {
+    this.options = options;
+    this.clientFactory = clientFactory;
+    if (options.getEvictionInterval() != null && !options.getEvictionInterval().isZero()) {
+      long interval = options.getEvictionInterval().toMillis();
+      this.evictor =
+          Executors.newSingleThreadScheduledExecutor(
+              Thread.ofPlatform().daemon().name("ftp-pool-evictor").factory());
+      evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    } else {
+      this.evictor = null;
+    }
+  }
+
+  /**
+   * Lease a logged-in session for the server, reusing an idle one when possible.
+   *
+   * @param ftpFile connection data.
+   * @return session, close it to give it back.
+   * @throws TechnicalException when no session is free before the lease timeout or login fails.
+   */
+  public FtpSession borrow(UploadableFtpFile ftpFile) {
+    if (closed) {
+      throw new TechnicalException("Pool is closed");
+    }
+    Key key = Key.of(ftpFile);
+    Slots slot = slots.computeIfAbsent(key, k -> new Slots(ftpFile, options.getMaxTotal()));
+    acquire(key, slot);
+    try {
+      FTPClient client;
+      while ((client = slot.pollIdle()) != null) {
+        if (isUsable(slot, client)) {
+          return new FtpSession(this, key, client);
+        }
+        destroy(client);
+      }
+      return new FtpSession(this, key, open(ftpFile));
+    } catch (RuntimeException e) {
+      slot.permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Disconnect idle sessions older than the idle timeout, keeping min idle per server and opening
+   * new ones when below it.
+   */
+  public void evictIdle() {
+    long limit = System.currentTimeMillis() - options.getIdleTimeout().toMillis();
+    for (Slots slot : slots.values()) {
+      slot.evict(limit, options.getMinIdle()).forEach(this::destroy);
+      fillMinIdle(slot);
+    }
+  }
+
+  /**
+   * @param ftpFile connection data.
+   * @return idle sessions kept for the server.
+   */
+  public int getIdleCount(UploadableFtpFile ftpFile) {
+    Slots slot = slots.get(Key.of(ftpFile));
+    return slot != null ? slot.idleCount() : NumericConstants.ZERO;
+  }
+
+  /** Disconnect the idle sessions, leased ones are disconnected when given back. */
+  @Override
+  public void close() {
+    closed = true;
+    if (evictor != null) {
+      evictor.shutdownNow();
+    }
+    slots.values().forEach(slot -> slot.drain().forEach(this::destroy));
+  }
+
+  void release(Key key, FTPClient client, boolean broken) {
+    Slots slot = slots.get(key);
+    try {
+      if (broken || closed || slot == null || !slot.offerIdle(client, options.getMaxIdle())) {
+        destroy(client);
+      }
+    } finally {
+      if (slot != null) {
+        slot.permits.release();
+      }
+    }
+  }
+
+  private void acquire(Key key, Slots slot) {
+    try {
+      if (!slot.permits.tryAcquire(options.getLeaseTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new TechnicalException("Timeout waiting for a FTP session to " + key);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException(e);
+    }
+  }
+
+  private boolean isUsable(Slots slot, FTPClient client) {
+    if (!client.isConnected()) {
+      return false;
+    }
+    if (!options.isValidateOnBorrow()) {
+      return true;
+    }
+    try {
+      return client.sendNoOp();
+    } catch (Exception e) {
+      log.debug("Dropping FTP session to {}: {}", slot.ftpFile.getServer(), e.getMessage());
+      return false;
+    }
+  }
+
+  private FTPClient open(UploadableFtpFile ftpFile) {
+    FTPClient client = clientFactory.get();
+    boolean connected = false;
+    try {
+      connected = FtpUtil.connect(ftpFile, client);
+    } finally {
+      if (!connected) {
+        destroy(client);
+      }
+    }
+    if (!connected) {
+      throw new TechnicalException("Could not login to " + Key.of(ftpFile));
+    }
+    return client;
+  }
+
+  /**
+   * Open sessions up to min idle. Idle sessions count against max total, so a new one is opened
+   * only while each idle session still has a free permit to be borrowed with.
+   */
+  private void fillMinIdle(Slots slot) {
+    while (!closed && slot.idleCount() < options.getMinIdle() && slot.permits.tryAcquire()) {
+      try {
+        if (slot.idleCount() > slot.permits.availablePermits()
+            || !slot.offerIdle(open(slot.ftpFile), options.getMaxIdle())) {
+          return;
+        }
+      } catch (RuntimeException e) {
+        log.warn("Could not open FTP session to {}: {}", slot.ftpFile.getServer(), e.getMessage());
+        return;
+      } finally {
+        slot.permits.release();
+      }
+    }
+  }
+
+  /** Log out when possible, the socket is closed even if the server doesn't answer the QUIT. */
+  private void destroy(FTPClient client) {
+    try {
+      if (client.isConnected()) {
+        client.logout();
+      }
+    } catch (Exception e) {
+      log.debug("Error logging out FTP session: {}", e.getMessage());
+    } finally {
+      try {
+        client.disconnect();
+      } catch (Exception e) {
+        log.debug("Error closing FTP session: {}", e.getMessage());
+      }
+    }
+  }
+
+  /** Identifies the sessions that can be shared. */
+  record Key(String server, int port, String user) {
+
+    static Key of(UploadableFtpFile ftpFile) {
+      return new Key(ftpFile.getServer(), ftpFile.getPort(), ftpFile.getUser());
+    }
+
+    @Override
+    public String toString() {
+      return user + "@" + server + ":" + port;
+    }
+  }
+
+  /** Idle sessions of a server plus the permits bounding the leased ones. */
+  private static final class Slots {
+
+    private final UploadableFtpFile ftpFile;
+    private final Semaphore permits;
+    private final Deque<Idle> idle = new ArrayDeque<>();
+
+    Slots(UploadableFtpFile ftpFile, int maxTotal) {
+      this.ftpFile = ftpFile;
+      this.permits = new Semaphore(Math.max(1, maxTotal), true);
+    }
+
+    synchronized FTPClient pollIdle() {
+      Idle last = idle.pollFirst();
+      return last != null ? last.client() : null;
+    }
+
+    synchronized boolean offerIdle(FTPClient client, int maxIdle) {
+      if (idle.size() >= maxIdle) {
+        return false;
+      }
+      idle.addFirst(new Idle(client, System.currentTimeMillis()));
+      return true;
+    }
+
+    synchronized int idleCount() {
+      return idle.size();
+    }
+
+    /** Remove from the least recently used end, most recently used sessions stay warm. */
+    synchronized List<FTPClient> evict(long limit, int minIdle) {
+      Deque<FTPClient> evicted = new ArrayDeque<>();
+      Iterator<Idle> oldest = idle.descendingIterator();
+      while (oldest.hasNext() && idle.size() > minIdle) {
+        Idle candidate = oldest.next();
+        if (candidate.since() > limit) {
+          break;
+        }
+        oldest.remove();
+        evicted.add(candidate.client());
+      }
+      return List.copyOf(evicted);
+    }
+
+    synchronized List<FTPClient> drain() {
+      List<FTPClient> clients = idle.stream().map(Idle::client).toList();
+      idle.clear();
+      return clients;
+    }
+  }
+
+  private record Idle(FTPClient client, long since) {}
+}
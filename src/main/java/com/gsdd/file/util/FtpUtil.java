@@ -4,31 +4,60 @@ import com.gsdd.constants.FileConstants;
 import com.gsdd.constants.GralConstants;
 import com.gsdd.constants.NumericConstants;
 import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.CompressionFormat;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.TransferOptions;
 import com.gsdd.file.util.model.UploadableFtpFile;
 import com.gsdd.validatorutil.ValidatorUtil;
 import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPListParseEngine;
 import org.apache.commons.net.ftp.FTPReply;
+import org.apache.commons.net.io.CopyStreamAdapter;
+import org.apache.commons.net.io.CopyStreamListener;
 
 @Slf4j
 @UtilityClass
 public final class FtpUtil {
 
+  private static final int PIPE_DEPTH = 4;
+  private static final int LIST_PAGE = 100;
+
   public static boolean connect(UploadableFtpFile ftpFile, FTPClient client) {
     try {
       client.connect(ftpFile.getServer(), ftpFile.getPort());
@@ -87,6 +116,38 @@ public final class FtpUtil {
     return exists;
   }
 
+  /**
+   * Check directory on the cached listing of its parent, if not exists it try to create it.
+   *
+   * @param ftpFile connection data
+   * @param cache listings of the session
+   * @param ftpDir directory to check
+   * @return true if exists.
+   */
+  public static boolean checkDirectory(
+      UploadableFtpFile ftpFile, FtpListingCache cache, String ftpDir) {
+    try {
+      if (cache.isDirectory(ftpDir)) {
+        return true;
+      }
+      boolean created = cache.makeDirectory(ftpDir);
+      showServerReply(ftpFile, cache.getClient());
+      return created;
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Compare the size of the first entry listed on the dir with the min size. It isn't the free
+   * space of the server, use {@link #checkAvailableSpaceOnDir(FtpCapacityProbe, UploadableFtpFile,
+   * FTPClient, String, Long)} for that.
+   *
+   * @param client
+   * @param ftpDir
+   * @param minSize
+   * @return
+   */
   public static boolean checkAvailableSpaceOnDir(FTPClient client, String ftpDir, Long minSize) {
     boolean check = false;
     try {
@@ -101,6 +162,28 @@ public final class FtpUtil {
     return check;
   }
 
+  /**
+   * Check the free space of the server is at least the min size.
+   *
+   * @param probe cached free space per server.
+   * @param ftpFile connection data
+   * @param client
+   * @param ftpDir
+   * @param minSize bytes needed.
+   * @return false if there is not enough space or the server can't tell and the probe has no
+   *     fallback estimate.
+   */
+  public static boolean checkAvailableSpaceOnDir(
+      FtpCapacityProbe probe,
+      UploadableFtpFile ftpFile,
+      FTPClient client,
+      String ftpDir,
+      Long minSize) {
+    long available = probe.getAvailableSpace(ftpFile, client, ftpDir);
+    return available >= NumericConstants.ZERO
+        && ByteConverter.MIN_AVAILABLE_SIZE.test(available, minSize);
+  }
+
   /**
    * Get files on a directory sorted by last modification.
    *
@@ -109,18 +192,29 @@ public final class FtpUtil {
    * @return
    */
   public static List<FTPFile> getFilesSortedByLastModification(FTPClient client, String route) {
-    List<FTPFile> ftpFiles = new ArrayList<>();
     try {
-      ftpFiles =
-          Arrays.stream(getFilesFromDir(client, route))
-              .filter(ftpFile -> !ftpFile.isDirectory())
-              .collect(Collectors.toList());
-      Comparator<FTPFile> ftpFileComparator = Comparator.comparing(FTPFile::getTimestamp);
-      ftpFiles.sort(ftpFileComparator);
+      return sortByLastModification(getFilesFromDir(client, route));
     } catch (Exception e) {
       log.error(e.getMessage(), e);
     }
-    return ftpFiles;
+    return new ArrayList<>();
+  }
+
+  /**
+   * Get files on a directory sorted by last modification, from the cached listing.
+   *
+   * @param cache listings of the session
+   * @param route
+   * @return
+   */
+  public static List<FTPFile> getFilesSortedByLastModification(
+      FtpListingCache cache, String route) {
+    try {
+      return sortByLastModification(cache.list(route));
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+    }
+    return new ArrayList<>();
   }
 
   /**
@@ -141,9 +235,26 @@ public final class FtpUtil {
     }
   }
 
+  /**
+   * Transfer files through FTP using inputstream, dropping the cached listing of the target dir.
+   *
+   * @param cache listings of the session
+   * @param route
+   * @param ftpRoute
+   * @return
+   */
+  public static boolean transferFileIs(FtpListingCache cache, String route, String ftpRoute) {
+    try (InputStream is = new FileInputStream(route)) {
+      return cache.storeFile(ftpRoute, is);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
   /**
    * Transfer files through FTP using outputstream and sends noop for avoid disconnection, this
-   * method should be used for big files.
+   * method should be used for big files. {@link #transferLargeFile} is faster, it doesn't flush
+   * nor block on a NOOP after each chunk.
    *
    * @see <a href=
    *     "http://www.codejava.net/java-se/networking/ftp/java-ftp-file-upload-tutorial-and-example">codejava.net</a>
@@ -185,6 +296,145 @@ public final class FtpUtil {
     }
   }
 
+  /**
+   * Transfer a big file through FTP with a large buffer and without flushing each chunk. The
+   * control connection is kept alive with a NOOP only after it's been idle for the keep alive
+   * interval, and the progress is published from another thread. Client settings changed here are
+   * restored before returning.
+   *
+   * @param client
+   * @param route
+   * @param ftpRoute
+   * @param options buffer size, keep alive and progress intervals.
+   * @param listener receives the progress, may be null.
+   * @return true if the server confirmed the upload.
+   */
+  public static boolean transferLargeFile(
+      FTPClient client,
+      String route,
+      String ftpRoute,
+      TransferOptions options,
+      ProgressListener listener) {
+    int bufferSize = client.getBufferSize();
+    int socketBuffer = client.getSendDataSocketBufferSize();
+    Duration keepAlive = client.getControlKeepAliveTimeoutDuration();
+    CopyStreamListener copyListener = client.getCopyStreamListener();
+    long total = new File(route).length();
+    try (InputStream is = new FileInputStream(route);
+        ProgressReporter reporter =
+            new ProgressReporter(ftpRoute, total, listener, options.getProgressInterval())) {
+      client.setBufferSize(options.getBufferSize());
+      client.setSendDataSocketBufferSize(options.getBufferSize());
+      client.setControlKeepAliveTimeout(options.getKeepAliveInterval());
+      client.setCopyStreamListener(
+          new CopyStreamAdapter() {
+
+            @Override
+            public void bytesTransferred(long totalBytes, int bytes, long streamSize) {
+              reporter.set(totalBytes);
+            }
+          });
+      return client.storeFile(ftpRoute, is);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    } finally {
+      client.setBufferSize(bufferSize);
+      client.setSendDataSocketBufferSize(socketBuffer);
+      client.setControlKeepAliveTimeout(keepAlive);
+      client.setCopyStreamListener(copyListener);
+    }
+  }
+
+  /**
+   * Compress a file while it's uploaded, so the archive is never written to local disk. The
+   * compression runs on another thread feeding the upload through a bounded pipe, so CPU and
+   * network work overlap. If the upload breaks midway the partial archive is deleted from the
+   * server.
+   *
+   * @param client
+   * @param route local file.
+   * @param ftpRoute remote archive, see {@link CompressionFormat#getExtension()}.
+   * @param format gzip, or zip with a single entry named as the local file.
+   * @param options buffer size, also the size of each chunk of the pipe.
+   * @return true if the server confirmed the upload.
+   */
+  public static boolean transferFileCompressed(
+      FTPClient client,
+      String route,
+      String ftpRoute,
+      CompressionFormat format,
+      TransferOptions options) {
+    Path source = Path.of(route);
+    try (InputStream is = Files.newInputStream(source)) {
+      return transferFileCompressed(
+          client,
+          is,
+          source.getFileName().toString(),
+          Files.getLastModifiedTime(source).toMillis(),
+          ftpRoute,
+          format,
+          options);
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * @param source content to compress.
+   * @param name of the zip entry.
+   * @param lastModified millis of last modification of the zip entry.
+   */
+  static boolean transferFileCompressed(
+      FTPClient client,
+      InputStream source,
+      String name,
+      long lastModified,
+      String ftpRoute,
+      CompressionFormat format,
+      TransferOptions options) {
+    BoundedPipe pipe = new BoundedPipe(options.getBufferSize(), PIPE_DEPTH);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<?> compression =
+          executor.submit(
+              () -> {
+                compress(source, name, lastModified, format, pipe, options.getBufferSize());
+                return null;
+              });
+      try {
+        boolean stored;
+        // closing the input stops the compression if the upload ends early
+        try (InputStream is = pipe.getInput()) {
+          stored = client.storeFile(ftpRoute, is);
+        }
+        if (!stored) {
+          // the compressor only fails because the pipe was closed, the reply is the cause
+          return false;
+        }
+        compression.get();
+        return true;
+      } catch (ExecutionException | IOException e) {
+        // the server may keep the truncated archive received before the error
+        deletePartial(client, ftpRoute);
+        throw e;
+      }
+    } catch (ExecutionException e) {
+      throw new TechnicalException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException(e);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  private static void deletePartial(FTPClient client, String ftpRoute) {
+    try {
+      client.deleteFile(ftpRoute);
+    } catch (IOException e) {
+      log.warn("Could not delete partial upload {}: {}", ftpRoute, e.getMessage());
+    }
+  }
+
   /**
    * It allows to get/download a file from FTP.
    *
@@ -213,16 +463,19 @@ public final class FtpUtil {
    * @param directory
    */
   public static void deleteEmptyFiles(FTPClient client, String directory) {
-    try {
-      List<FTPFile> ftpFiles = getFilesSortedByLastModification(client, directory);
-      for (FTPFile ftp : ftpFiles) {
-        if (ftp.getSize() == NumericConstants.ZERO && ftp.isFile()) {
-          client.deleteFile(directory + ftp.getName());
-        }
-      }
-    } catch (Exception e) {
-      throw new TechnicalException(e);
-    }
+    deleteEmptyFiles(
+        getFilesSortedByLastModification(client, directory), directory, client::deleteFile);
+  }
+
+  /**
+   * Delete 0B size file in a directory, using the cached listing.
+   *
+   * @param cache listings of the session
+   * @param directory
+   */
+  public static void deleteEmptyFiles(FtpListingCache cache, String directory) {
+    deleteEmptyFiles(
+        getFilesSortedByLastModification(cache, directory), directory, cache::deleteFile);
   }
 
   /**
@@ -235,16 +488,192 @@ public final class FtpUtil {
    * @return
    */
   public static boolean deleteOldFiles(FTPClient client, String directory, int backup) {
+    return deleteOldFiles(
+        getFilesSortedByLastModification(client, directory), directory, backup, client::deleteFile);
+  }
+
+  /**
+   * Allows to delete the oldest files in a directory, using the cached listing.
+   *
+   * @param cache listings of the session
+   * @param directory
+   * @param backup how many files preserve.
+   * @return
+   */
+  public static boolean deleteOldFiles(FtpListingCache cache, String directory, int backup) {
+    return deleteOldFiles(
+        getFilesSortedByLastModification(cache, directory), directory, backup, cache::deleteFile);
+  }
+
+  /**
+   * Delete the files of a directory outside of the retention policy, without sorting the listing.
+   * The listing is streamed page by page; entries the parser can't date are always kept.
+   *
+   * @param client
+   * @param directory
+   * @param policy what to keep.
+   * @return how many files were deleted.
+   */
+  public static int deleteOldFiles(FTPClient client, String directory, RetentionPolicy policy) {
+    int[] deleted = {NumericConstants.ZERO};
+    try (Stream<FTPFile> listing = streamFiles(client, directory, LIST_PAGE)) {
+      Iterator<FTPFile> files =
+          listing.filter(FTPFile::isFile).filter(ftp -> ftp.getTimestamp() != null).iterator();
+      RetentionEngine.apply(
+          files,
+          ftp -> ftp.getTimestamp().getTimeInMillis(),
+          FTPFile::getSize,
+          policy,
+          System.currentTimeMillis(),
+          ftp -> {
+            try {
+              if (client.deleteFile(directory + ftp.getName())) {
+                deleted[0]++;
+              }
+            } catch (IOException e) {
+              throw new TechnicalException(e);
+            }
+          });
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+    return deleted[0];
+  }
+
+  /**
+   * Size of a remote file, using MLST when the server supports it and SIZE otherwise.
+   *
+   * @param client
+   * @param ftpRoute
+   * @return bytes, or -1 if the file doesn't exist or the server can't tell.
+   */
+  public static long getRemoteSize(FTPClient client, String ftpRoute) {
+    try {
+      FTPFile file = client.mlistFile(ftpRoute);
+      if (file != null && file.getSize() >= NumericConstants.ZERO) {
+        return file.getSize();
+      }
+      String size = client.getSize(ftpRoute);
+      return size != null ? Long.parseLong(size.trim()) : NumericConstants.MINUS_ONE;
+    } catch (NumberFormatException e) {
+      return NumericConstants.MINUS_ONE;
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Lazy listing of a directory. Entries are parsed page by page while the stream is consumed, so
+   * callers can filter or stop early without building the whole {@code FTPFile[]}. The raw listing
+   * lines are still buffered by {@link FTPListParseEngine}.
+   *
+   * @param client
+   * @param route
+   * @param pageSize entries parsed at once.
+   * @return entries of the directory.
+   */
+  public static Stream<FTPFile> streamFiles(FTPClient client, String route, int pageSize) {
+    try {
+      FTPListParseEngine engine = client.initiateListParsing(route);
+      Iterator<FTPFile> pages =
+          new Iterator<>() {
+
+            private final Deque<FTPFile> page = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+              while (page.isEmpty() && engine.hasNext()) {
+                Arrays.stream(engine.getNext(pageSize))
+                    .filter(Objects::nonNull)
+                    .forEach(page::add);
+              }
+              return !page.isEmpty();
+            }
+
+            @Override
+            public FTPFile next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              return page.poll();
+            }
+          };
+      return StreamSupport.stream(
+          Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL),
+          false);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * The output is closed only once the archive is complete, on any error the pipe is failed
+   * instead so the upload doesn't end as if the archive was whole.
+   */
+  private static void compress(
+      InputStream is,
+      String name,
+      long lastModified,
+      CompressionFormat format,
+      BoundedPipe pipe,
+      int bufferSize)
+      throws IOException {
+    OutputStream os = pipe.getOutput();
+    try {
+      if (format == CompressionFormat.ZIP) {
+        ZipOutputStream zos = new ZipOutputStream(os);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(lastModified);
+        zos.putNextEntry(entry);
+        is.transferTo(zos);
+        zos.closeEntry();
+        zos.finish();
+      } else {
+        GZIPOutputStream gzos = new GZIPOutputStream(os, bufferSize);
+        is.transferTo(gzos);
+        gzos.finish();
+      }
+      os.close();
+    } catch (IOException | RuntimeException e) {
+      pipe.fail(e);
+      throw e;
+    }
+  }
+
+  private static List<FTPFile> sortByLastModification(FTPFile[] files) {
+    List<FTPFile> ftpFiles =
+        Arrays.stream(files)
+            .filter(ftpFile -> !ftpFile.isDirectory())
+            .collect(Collectors.toList());
+    Comparator<FTPFile> ftpFileComparator = Comparator.comparing(FTPFile::getTimestamp);
+    ftpFiles.sort(ftpFileComparator);
+    return ftpFiles;
+  }
+
+  private static void deleteEmptyFiles(
+      List<FTPFile> ftpFiles, String directory, RemoteDelete delete) {
+    try {
+      for (FTPFile ftp : ftpFiles) {
+        if (ftp.getSize() == NumericConstants.ZERO && ftp.isFile()) {
+          delete.delete(directory + ftp.getName());
+        }
+      }
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  private static boolean deleteOldFiles(
+      List<FTPFile> ftpFiles, String directory, int backup, RemoteDelete delete) {
     boolean deleted;
     try {
-      List<FTPFile> ftpFiles = getFilesSortedByLastModification(client, directory);
       int currentSize = ftpFiles.size();
       int size = ftpFiles.size();
       for (FTPFile ftp : ftpFiles) {
         if (size == backup) {
           break;
         }
-        if (ftp.isFile() && client.deleteFile(directory + ftp.getName())) {
+        if (ftp.isFile() && delete.delete(directory + ftp.getName())) {
           size--;
         }
       }
@@ -300,4 +729,9 @@ public final class FtpUtil {
       log.info("{}", progress);
     }
   }
+
+  @FunctionalInterface
+  private interface RemoteDelete {
+    boolean delete(String ftpRoute) throws IOException;
+  }
 }
@@ -0,0 +1,13 @@
+package com.gsdd.file.util;
+
+/** Receives the progress of a transfer, called from a reporter thread, not the copying one. */
+@FunctionalInterface
+public interface ProgressListener {
+
+  /**
+   * @param route file being transferred.
+   * @param transferred bytes copied so far.
+   * @param total size of the file, -1 if unknown.
+   */
+  void onProgress(String route, long transferred, long total);
+}
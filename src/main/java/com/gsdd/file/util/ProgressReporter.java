@@ -0,0 +1,76 @@
+package com.gsdd.file.util;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the progress of a transfer on a fixed interval from a shared daemon thread, so the
+ * copy loop only bumps a counter and never waits on logging or listeners.
+ */
+@Slf4j
+final class ProgressReporter implements Closeable {
+
+  private static final ScheduledExecutorService SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().daemon().name("transfer-progress").factory());
+
+  private final String route;
+  private final long total;
+  private final ProgressListener listener;
+  private final AtomicLong transferred = new AtomicLong();
+  private final ScheduledFuture<?> task;
+
+  /**
+   * Start reporting.
+   *
+   * @param route file being transferred.
+   * @param total size of the file, -1 if unknown.
+   * @param listener receives the progress, null to not report.
+   * @param interval time between reports.
+   */
+  ProgressReporter(String route, long total, ProgressListener listener, Duration interval) {
+    this.route = route;
+    this.total = total;
+    this.listener = listener;
+    long millis = Math.max(interval.toMillis(), 1L);
+    this.task =
+        listener != null
+            ? SCHEDULER.scheduleAtFixedRate(this::report, millis, millis, TimeUnit.MILLISECONDS)
+            : null;
+  }
+
+  void add(long bytes) {
+    transferred.addAndGet(bytes);
+  }
+
+  void set(long bytes) {
+    transferred.set(bytes);
+  }
+
+  long getTransferred() {
+    return transferred.get();
+  }
+
+  /** Stop reporting and publish the final count. */
+  @Override
+  public void close() {
+    if (task != null) {
+      task.cancel(false);
+      report();
+    }
+  }
+
+  private void report() {
+    try {
+      listener.onProgress(route, transferred.get(), total);
+    } catch (RuntimeException e) {
+      log.warn("Progress listener failed: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Segmented download shared by the transports. The file is split in byte ranges read in parallel,
+ * each one on its own stream opened by the {@link Source}, and written at its position of a temp
+ * file that replaces the target only once every range is complete.
+ */
+@Slf4j
+@UtilityClass
+final class RangeDownloader {
+
+  /**
+   * Download a file splitting it in up to concurrency ranges of at least the segment size. A
+   * failed range is retried from the last byte written.
+   *
+   * @param transfer local target and remote route, used in the errors.
+   * @param size bytes of the remote file.
+   * @param source opens the remote file at a position.
+   * @param options segments, buffer and retries.
+   * @return result of the download, the target is left as it was if it failed.
+   */
+  static TransferResult download(
+      FileTransfer transfer, long size, Source source, TransferOptions options) {
+    long start = System.nanoTime();
+    TransferResult[] result = new TransferResult[1];
+    replace(
+        transfer.getLocalRoute(),
+        temp -> {
+          result[0] = download(transfer, size, source, options, temp, start);
+          return result[0].isSuccess();
+        });
+    return result[0];
+  }
+
+  /**
+   * Write into a temp file next to the target, moved into place only if the writer succeeds, so a
+   * failed download never leaves a partial file nor replaces the previous one.
+   *
+   * @param localRoute target file.
+   * @param writer fills the temp file.
+   * @return true if the target was replaced.
+   */
+  static boolean replace(String localRoute, TempWriter writer) {
+    Path target = Path.of(localRoute).toAbsolutePath();
+    Path temp = null;
+    boolean moved = false;
+    try {
+      temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+      if (writer.write(temp)) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        moved = true;
+      }
+      return moved;
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    } finally {
+      if (temp != null && !moved) {
+        delete(temp);
+      }
+    }
+  }
+
+  private static TransferResult download(
+      FileTransfer transfer,
+      long size,
+      Source source,
+      TransferOptions options,
+      Path temp,
+      long start)
+      throws IOException {
+    List<ByteRange> segments = ByteRange.split(size, options);
+    try (RandomAccessFile file = new RandomAccessFile(temp.toFile(), "rw")) {
+      file.setLength(size);
+      FileChannel channel = file.getChannel();
+      List<Future<String>> errors = new ArrayList<>();
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (ByteRange segment : segments) {
+          errors.add(
+              executor.submit(
+                  () -> fetch(source, transfer.getRemoteRoute(), channel, segment, options)));
+        }
+      }
+      int attempts = segments.stream().mapToInt(ByteRange::getAttempts).max().orElse(1);
+      for (Future<String> error : errors) {
+        if (error.get() != null) {
+          return result(transfer, false, size, attempts, error.get(), start);
+        }
+      }
+      channel.force(false);
+      return result(transfer, true, size, attempts, null, start);
+    } catch (ExecutionException e) {
+      throw new TechnicalException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException(e);
+    }
+  }
+
+  private static void delete(Path temp) {
+    try {
+      Files.deleteIfExists(temp);
+    } catch (IOException e) {
+      log.warn("Could not delete {}: {}", temp, e.getMessage());
+    }
+  }
+
+  /**
+   * Fetch a range, retrying from the last byte written.
+   *
+   * @return null on success, otherwise the last error.
+   */
+  private static String fetch(
+      Source source, String route, FileChannel channel, ByteRange segment, TransferOptions options)
+      throws InterruptedException {
+    String error = null;
+    while (segment.getAttempts() <= options.getRetries()) {
+      if (segment.attempt() > 0) {
+        Thread.sleep(options.getRetryDelay());
+      }
+      try {
+        read(source, route, channel, segment, options.getBufferSize());
+        return null;
+      } catch (IOException | RuntimeException e) {
+        error = e.getMessage();
+        log.warn(
+            "Range {}-{} of {} failed: {}", segment.getPosition(), segment.getEnd(), route, error);
+      }
+    }
+    return error;
+  }
+
+  /**
+   * Copy the rest of the range into the channel. The last range reads past its end, so the
+   * source sees the end of the file before it's closed.
+   */
+  private static void read(
+      Source source, String route, FileChannel channel, ByteRange segment, int bufferSize)
+      throws IOException {
+    try (ReadableByteChannel in = Channels.newChannel(source.open(segment.getPosition()))) {
+      ByteBuffer buffer = ByteBuffer.allocate(Math.max(bufferSize, 1));
+      while (segment.getRemaining() > 0) {
+        buffer.limit((int) Math.min(buffer.capacity(), segment.getRemaining()));
+        if (in.read(buffer) == NumericConstants.MINUS_ONE) {
+          throw new IOException("Unexpected end of " + route + " at " + segment.getPosition());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          segment.advance(channel.write(buffer, segment.getPosition()));
+        }
+        buffer.clear();
+      }
+      if (segment.isLast()) {
+        in.read(ByteBuffer.allocate(1));
+      }
+    }
+  }
+
+  static TransferResult result(
+      FileTransfer transfer, boolean success, long size, int attempts, String error, long start) {
+    return new TransferResult(
+        transfer,
+        success,
+        Math.max(size, NumericConstants.ZERO),
+        attempts,
+        error,
+        Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /** Opens the remote file for reading from a position. */
+  @FunctionalInterface
+  interface Source {
+
+    /**
+     * @param position first byte to read.
+     * @return stream positioned at the byte, closed once the range is read or failed.
+     * @throws IOException on any error.
+     */
+    InputStream open(long position) throws IOException;
+  }
+
+  /** Fills the temp file of a download. */
+  @FunctionalInterface
+  interface TempWriter {
+
+    /**
+     * @param temp file next to the target.
+     * @return true if the temp file is complete and can replace the target.
+     * @throws IOException on any error.
+     */
+    boolean write(Path temp) throws IOException;
+  }
+}
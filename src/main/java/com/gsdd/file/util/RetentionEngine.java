@@ -0,0 +1,93 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.file.util.model.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Applies a {@link RetentionPolicy} over a listing in a single pass. Only the kept files are held,
+ * on a heap ordered by last modification, so the listing is never sorted nor fully materialised;
+ * for newest-N policies memory is bounded by N.
+ */
+@UtilityClass
+public final class RetentionEngine {
+
+  /**
+   * Walk the entries calling expired for each one outside of the policy, as soon as it's known.
+   *
+   * @param entries listing, in any order.
+   * @param lastModified millis of last modification of an entry.
+   * @param size bytes of an entry.
+   * @param policy what to keep.
+   * @param now reference time for age limits.
+   * @param expired receives the entries to remove.
+   * @param <T> entry type.
+   * @return how many entries were expired.
+   */
+  public static <T> int apply(
+      Iterator<T> entries,
+      ToLongFunction<T> lastModified,
+      ToLongFunction<T> size,
+      RetentionPolicy policy,
+      long now,
+      Consumer<T> expired) {
+    long minTime =
+        policy.getMaxAge() != null ? now - policy.getMaxAge().toMillis() : Long.MIN_VALUE;
+    PriorityQueue<T> kept = new PriorityQueue<>(Comparator.comparingLong(lastModified));
+    long keptSize = NumericConstants.ZERO;
+    long evictedTime = Long.MIN_VALUE;
+    int count = NumericConstants.ZERO;
+    while (entries.hasNext()) {
+      T entry = entries.next();
+      long time = lastModified.applyAsLong(entry);
+      if (time < minTime || time < evictedTime) {
+        expired.accept(entry);
+        count++;
+        continue;
+      }
+      if (!policy.isRanked()) {
+        continue;
+      }
+      kept.add(entry);
+      keptSize += size.applyAsLong(entry);
+      while (!kept.isEmpty()
+          && (kept.size() > policy.getKeepNewest() || keptSize > policy.getMaxTotalSize())) {
+        T oldest = kept.poll();
+        keptSize -= size.applyAsLong(oldest);
+        evictedTime = Math.max(evictedTime, lastModified.applyAsLong(oldest));
+        expired.accept(oldest);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Entries outside of the policy.
+   *
+   * @param entries listing, in any order.
+   * @param lastModified millis of last modification of an entry.
+   * @param size bytes of an entry.
+   * @param policy what to keep.
+   * @param now reference time for age limits.
+   * @param <T> entry type.
+   * @return entries to remove.
+   */
+  public static <T> List<T> selectExpired(
+      Iterable<T> entries,
+      ToLongFunction<T> lastModified,
+      ToLongFunction<T> size,
+      RetentionPolicy policy,
+      long now) {
+    List<T> expired = new ArrayList<>();
+    apply(entries.iterator(), lastModified, size, policy, now, expired::add);
+    return expired;
+  }
+}
@@ -0,0 +1,70 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.UploadableSmbFile;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jcifs.smb.SmbFile;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Copies many local files to a SMB share with several writers at once. Copying lots of small
+ * files is dominated by the round-trips of opening and closing each one, which parallel writers
+ * hide. jcifs multiplexes the writers over the same transport, so no session is kept per worker of
+ * the {@link BatchRunner}.
+ */
+@UtilityClass
+public final class SmbBatchCopier {
+
+  /**
+   * Copy the files into the route of the smb file, keeping their names.
+   *
+   * @param smbFile target dir, its route is reused when set (see {@link SmbSessionManager}).
+   * @param files local files.
+   * @param options concurrency, retries and buffer size.
+   * @return result per file.
+   */
+  public static TransferReport copy(
+      UploadableSmbFile smbFile, List<String> files, TransferOptions options) {
+    return copy(smbFile, files, options, SmbUtil::write);
+  }
+
+  /**
+   * @param writer copies a local file to its target on the share.
+   */
+  static TransferReport copy(
+      UploadableSmbFile smbFile, List<String> files, TransferOptions options, Writer writer) {
+    String base = smbFile.getRoute() != null ? smbFile.getRoute().getPath() : smbFile.getUrl();
+    List<FileTransfer> transfers = new ArrayList<>(files.size());
+    for (String file : files) {
+      transfers.add(new FileTransfer(file, base + Path.of(file).getFileName()));
+    }
+    return BatchRunner.run(
+        transfers,
+        options,
+        () ->
+            transfer -> {
+              Path local = Path.of(transfer.getLocalRoute());
+              SmbFile target = SmbUtil.resolve(smbFile, local.getFileName().toString());
+              return writer.write(local, target, options.getBufferSize());
+            });
+  }
+
+  /** Copies a local file to the share. */
+  @FunctionalInterface
+  interface Writer {
+
+    /**
+     * @param local file to copy.
+     * @param target destination on the share.
+     * @param bufferSize bytes per write.
+     * @return bytes copied.
+     * @throws IOException on any read or write error.
+     */
+    long write(Path local, SmbFile target, int bufferSize) throws IOException;
+  }
+}
@@ -0,0 +1,139 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.SmbEntry;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableSmbFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import jcifs.smb.SmbFile;
+import jcifs.smb.SmbFileInputStream;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Downloads files from a SMB share. Big files are split in byte ranges read in parallel, each one
+ * on its own stream (see {@link RangeDownloader}), and a dir can be synced one way pulling only
+ * the files whose size or modification time changed.
+ */
+@Slf4j
+@UtilityClass
+public final class SmbDownloader {
+
+  /**
+   * Download a file splitting it in up to concurrency ranges of at least the segment size. A
+   * failed range is retried from the last byte written. The local file gets the modification time
+   * of the remote one, so later syncs can skip it, and is left as it was if the download fails.
+   *
+   * @param smbFile share dir, its route is reused when set (see {@link SmbSessionManager}).
+   * @param transfer local target and remote name inside the dir.
+   * @param options segments, buffer and retries.
+   * @return result of the download.
+   */
+  public static TransferResult download(
+      UploadableSmbFile smbFile, FileTransfer transfer, TransferOptions options) {
+    try {
+      SmbFile source = SmbUtil.resolve(smbFile, transfer.getRemoteRoute());
+      return download(source, source.length(), source.lastModified(), transfer, options);
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Pull the files of the share dir that are missing locally or whose size or modification time
+   * differ. The attributes come from a single listing of the dir (see {@link
+   * SmbUtil#getFileEntries}), files already up to date are not read at all.
+   *
+   * @param smbFile share dir, {@link SmbUtil#checkDirectory} must have set its route.
+   * @param localDir target dir.
+   * @param options files at the same time, segments, buffer and retries.
+   * @return result per file transferred, a file that can't be written locally is reported as
+   *     failed.
+   */
+  public static TransferReport sync(
+      UploadableSmbFile smbFile, String localDir, TransferOptions options) {
+    long start = System.nanoTime();
+    List<Pending> pending = new ArrayList<>();
+    for (SmbEntry entry : SmbUtil.getFileEntries(smbFile)) {
+      Path local = Path.of(localDir, entry.getName());
+      if (!entry.isDirectory() && !isUpToDate(local, entry.getSize(), entry.getLastModified())) {
+        pending.add(new Pending(pending.size(), entry, local));
+      }
+    }
+    TransferResult[] results = new TransferResult[pending.size()];
+    BulkDeleter.forEachParallel(
+        pending,
+        options.getConcurrency(),
+        file -> {
+          long fileStart = System.nanoTime();
+          SmbEntry entry = file.entry();
+          FileTransfer transfer = new FileTransfer(file.local().toString(), entry.getName());
+          try {
+            results[file.index()] =
+                download(
+                    entry.getFile(), entry.getSize(), entry.getLastModified(), transfer, options);
+          } catch (RuntimeException e) {
+            log.warn("Sync of {} failed: {}", entry.getName(), e.getMessage());
+            results[file.index()] =
+                RangeDownloader.result(
+                    transfer, false, entry.getSize(), 1, e.getMessage(), fileStart);
+          }
+        });
+    return new TransferReport(Arrays.asList(results), Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * @param local file.
+   * @param size bytes of the remote file.
+   * @param lastModified millis of last modification of the remote file.
+   * @return true if the local file exists with the same size and modification time.
+   */
+  static boolean isUpToDate(Path local, long size, long lastModified) {
+    try {
+      return Files.isRegularFile(local)
+          && Files.size(local) == size
+          && Files.getLastModifiedTime(local).toMillis() == lastModified;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static TransferResult download(
+      SmbFile source,
+      long size,
+      long lastModified,
+      FileTransfer transfer,
+      TransferOptions options) {
+    TransferResult result =
+        RangeDownloader.download(transfer, size, position -> open(source, position), options);
+    if (result.isSuccess()) {
+      try {
+        Files.setLastModifiedTime(
+            Path.of(transfer.getLocalRoute()), FileTime.fromMillis(lastModified));
+      } catch (IOException e) {
+        throw new TechnicalException(e);
+      }
+    }
+    return result;
+  }
+
+  private static InputStream open(SmbFile source, long position) throws IOException {
+    SmbFileInputStream is = new SmbFileInputStream(source);
+    // jcifs only moves the file pointer on skip, the next read asks for that offset
+    is.skip(position);
+    return is;
+  }
+
+  private record Pending(int index, SmbEntry entry, Path local) {}
+}
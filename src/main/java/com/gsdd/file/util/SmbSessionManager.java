@@ -0,0 +1,194 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.FileConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.UploadableSmbFile;
+import java.io.Closeable;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import jcifs.smb.NtlmPasswordAuthentication;
+import jcifs.smb.SmbFile;
+
+/**
+ * Caches the NTLM credentials and the resolved share handles per url and user, so repeated
+ * checks, listings, transfers and deletes on the same share reuse them instead of building and
+ * negotiating new ones on every call. Entries not used for the idle timeout are rebuilt on the next
+ * access and dropped by {@link #evictIdle()}, which can also run on a schedule. The keys hold a
+ * salted digest of the password, only the cached credentials keep the password itself.
+ */
+public final class SmbSessionManager implements Closeable {
+
+  private final long idleTimeout;
+  private final byte[] salt = new byte[16];
+  private final Map<AuthKey, Cached<NtlmPasswordAuthentication>> auths = new ConcurrentHashMap<>();
+  private final Map<RouteKey, Cached<SmbFile>> routes = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService evictor;
+
+  /**
+   * Build a manager, idle entries are only dropped when {@link #evictIdle()} is called.
+   *
+   * @param idleTimeout how long unused entries are kept.
+   */
+  public SmbSessionManager(Duration idleTimeout) {
+    this(idleTimeout, null);
+  }
+
+  /**
+   * Build a manager.
+   *
+   * @param idleTimeout how long unused entries are kept.
+   * @param evictionInterval delay between runs of {@link #evictIdle()}, null or zero to disable.
+   */
+  public SmbSessionManager(Duration idleTimeout, Duration evictionInterval) {
+    this.idleTimeout = idleTimeout.toNanos();
+    new SecureRandom().nextBytes(salt);
+    if (evictionInterval != null && !evictionInterval.isZero()) {
+      long interval = evictionInterval.toMillis();
+      this.evictor =
+          Executors.newSingleThreadScheduledExecutor(
+              Thread.ofPlatform().daemon().name("smb-session-evictor").factory());
+      evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    } else {
+      this.evictor = null;
+    }
+  }
+
+  /**
+   * @param user
+   * @param pass
+   * @return cached credentials for the user.
+   */
+  public NtlmPasswordAuthentication getAuth(String user, String pass) {
+    return get(auths, authKey(user, pass), () -> SmbUtil.authenticateSMB(user, pass));
+  }
+
+  /**
+   * Handle of the route of a smb file, with the same url rules as {@link
+   * SmbUtil#checkDirectory(UploadableSmbFile)}.
+   *
+   * @param smbFile connection data.
+   * @return cached handle authenticated as the user of the smb file.
+   */
+  public SmbFile getRoute(UploadableSmbFile smbFile) {
+    return get(
+        routes,
+        routeKey(smbFile),
+        () -> {
+          try {
+            return new SmbFile(
+                FileConstants.SMB_URL + smbFile.getUrl(),
+                getAuth(smbFile.getUser(), smbFile.getPass()));
+          } catch (MalformedURLException e) {
+            throw new TechnicalException(e);
+          }
+        });
+  }
+
+  /**
+   * Set the cached credentials and route on the smb file, so {@link SmbUtil} methods working on
+   * its route reuse them.
+   *
+   * @param smbFile connection data.
+   * @return the same smb file.
+   */
+  public UploadableSmbFile prepare(UploadableSmbFile smbFile) {
+    smbFile.setAuth(getAuth(smbFile.getUser(), smbFile.getPass()));
+    smbFile.setRoute(getRoute(smbFile));
+    return smbFile;
+  }
+
+  /**
+   * Drop the cached route of a smb file, e.g. after a failure on it.
+   *
+   * @param smbFile connection data.
+   */
+  public void invalidate(UploadableSmbFile smbFile) {
+    routes.remove(routeKey(smbFile));
+  }
+
+  /** Drop the entries not used for the idle timeout. */
+  public void evictIdle() {
+    long now = System.nanoTime();
+    auths.values().removeIf(cached -> cached.isIdle(now, idleTimeout));
+    routes.values().removeIf(cached -> cached.isIdle(now, idleTimeout));
+  }
+
+  /**
+   * @return cached routes.
+   */
+  public int size() {
+    return routes.size();
+  }
+
+  /** Stop the scheduled eviction and drop every entry. */
+  @Override
+  public void close() {
+    if (evictor != null) {
+      evictor.shutdownNow();
+    }
+    auths.clear();
+    routes.clear();
+  }
+
+  private AuthKey authKey(String user, String pass) {
+    if (pass == null) {
+      return new AuthKey(user, null);
+    }
+    try {
+      MessageDigest sha = MessageDigest.getInstance("SHA-256");
+      sha.update(salt);
+      byte[] digest = sha.digest(pass.getBytes(StandardCharsets.UTF_8));
+      return new AuthKey(user, HexFormat.of().formatHex(digest));
+    } catch (NoSuchAlgorithmException e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  private RouteKey routeKey(UploadableSmbFile smbFile) {
+    return new RouteKey(smbFile.getUrl(), authKey(smbFile.getUser(), smbFile.getPass()));
+  }
+
+  private <K, V> V get(Map<K, Cached<V>> cache, K key, Supplier<V> factory) {
+    long now = System.nanoTime();
+    Cached<V> cached =
+        cache.compute(
+            key,
+            (k, current) ->
+                current == null || current.isIdle(now, idleTimeout)
+                    ? new Cached<>(factory.get())
+                    : current);
+    cached.lastUsed = now;
+    return cached.value;
+  }
+
+  private static final class Cached<V> {
+
+    private final V value;
+    private volatile long lastUsed = System.nanoTime();
+
+    Cached(V value) {
+      this.value = value;
+    }
+
+    boolean isIdle(long now, long timeout) {
+      return now - lastUsed > timeout;
+    }
+  }
+
+  /** User, with its domain if any, and the digest of the password. */
+  private record AuthKey(String user, String digest) {}
+
+  /** Host and share path of the url, plus the credentials. */
+  private record RouteKey(String url, AuthKey auth) {}
+}
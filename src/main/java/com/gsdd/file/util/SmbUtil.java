@@ -4,16 +4,32 @@ import com.gsdd.constants.FileConstants;
 import com.gsdd.constants.GralConstants;
 import com.gsdd.constants.NumericConstants;
 import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.SmbEntry;
+import com.gsdd.file.util.model.TransferOptions;
 import com.gsdd.file.util.model.UploadableSmbFile;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import jcifs.smb.NtlmPasswordAuthentication;
 import jcifs.smb.SmbException;
 import jcifs.smb.SmbFile;
+import jcifs.smb.SmbFileFilter;
 import jcifs.smb.SmbFileOutputStream;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +38,10 @@ import lombok.extern.slf4j.Slf4j;
 @UtilityClass
 public final class SmbUtil {
 
+  private static final int DOUBLE_BUFFER = 2;
+  static final Comparator<SmbEntry> BY_LAST_MODIFIED =
+      Comparator.comparingLong(SmbEntry::getLastModified).thenComparing(SmbEntry::getName);
+
   public static NtlmPasswordAuthentication authenticateSMB(String user, String pass) {
     return new NtlmPasswordAuthentication(null, user, pass);
   }
@@ -53,6 +73,35 @@ public final class SmbUtil {
     return b;
   }
 
+  /**
+   * Check if dir exists, and create it if necessary, reusing the credentials and route cached by
+   * the session manager.
+   *
+   * @param sessions cached credentials and routes.
+   * @param smbFile
+   * @return
+   */
+  public static boolean checkDirectory(SmbSessionManager sessions, UploadableSmbFile smbFile) {
+    try {
+      sessions.prepare(smbFile);
+      if (!smbFile.getRoute().exists()) {
+        smbFile.getRoute().mkdirs();
+      }
+      return true;
+    } catch (SmbException smbe) {
+      sessions.invalidate(smbFile);
+      if (smbFile.isReconnect()) {
+        throw new TechnicalException(smbe);
+      }
+      smbFile.setUser(null);
+      smbFile.setPass(null);
+      smbFile.setReconnect(Boolean.TRUE);
+      return checkDirectory(sessions, smbFile);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
   /**
    * Check the available size on dir vs what we need to store on it.
    *
@@ -74,20 +123,14 @@ public final class SmbUtil {
    * @param smbFile
    */
   public static void deleteEmptyFiles(UploadableSmbFile smbFile) {
-    try {
-      SmbFile[] filesOnDir = smbFile.getRoute().listFiles();
-      for (SmbFile file : filesOnDir) {
-        if (file.length() == NumericConstants.ZERO && file.isFile()) {
-          deleteFile(file);
-        }
-      }
-    } catch (Exception e) {
-      throw new TechnicalException(e);
-    }
+    getFileEntries(smbFile).stream()
+        .filter(entry -> !entry.isDirectory() && entry.getSize() == NumericConstants.ZERO)
+        .forEach(entry -> deleteFile(entry.getFile()));
   }
 
   /**
-   * Allow to delete the oldest files from route.
+   * Allow to delete the oldest files from route. Every file is deleted, see {@link
+   * #deleteOldFiles(UploadableSmbFile, int)} to keep the newest ones.
    *
    * @param smbFile
    * @return
@@ -99,7 +142,7 @@ public final class SmbUtil {
       int currentSize = smbFiles.size();
       int size = smbFiles.size();
       for (SmbFile file : smbFiles) {
-        if (file.isFile() && deleteFile(file)) {
+        if (deleteFile(file)) {
           size--;
         }
       }
@@ -111,7 +154,110 @@ public final class SmbUtil {
   }
 
   /**
-   * Allows to transfer a file using SMB.
+   * Allow to delete the oldest files from route.
+   *
+   * @param smbFile
+   * @param backup how many files preserve.
+   * @return true if any file was deleted.
+   */
+  public static boolean deleteOldFiles(UploadableSmbFile smbFile, int backup) {
+    return deleteOldFiles(smbFile, RetentionPolicy.keepNewest(backup)) > NumericConstants.ZERO;
+  }
+
+  /**
+   * Delete the files of route outside of the retention policy, without sorting the listing.
+   *
+   * @param smbFile
+   * @param policy what to keep.
+   * @return how many files were deleted.
+   */
+  public static int deleteOldFiles(UploadableSmbFile smbFile, RetentionPolicy policy) {
+    int[] deleted = {NumericConstants.ZERO};
+    List<SmbEntry> files =
+        getFileEntries(smbFile).stream().filter(entry -> !entry.isDirectory()).toList();
+    RetentionEngine.apply(
+        files.iterator(),
+        SmbEntry::getLastModified,
+        SmbEntry::getSize,
+        policy,
+        System.currentTimeMillis(),
+        entry -> {
+          if (deleteFile(entry.getFile())) {
+            deleted[0]++;
+          }
+        });
+    return deleted[0];
+  }
+
+  /**
+   * Delete the files of route outside of the retention policy with several deletes at once. The
+   * policy is evaluated over a single listing of route.
+   *
+   * @param smbFile
+   * @param policy what to keep.
+   * @param concurrency max deletes running at the same time.
+   * @return counts, bytes freed, failures and elapsed time.
+   */
+  public static DeletionReport deleteOldFiles(
+      UploadableSmbFile smbFile, RetentionPolicy policy, int concurrency) {
+    DeletionCounter counter = new DeletionCounter();
+    List<SmbEntry> expired =
+        RetentionEngine.selectExpired(
+            getFileEntries(smbFile).stream().filter(entry -> !entry.isDirectory()).toList(),
+            SmbEntry::getLastModified,
+            SmbEntry::getSize,
+            policy,
+            System.currentTimeMillis());
+    BulkDeleter.forEachParallel(
+        expired,
+        concurrency,
+        entry -> {
+          try {
+            entry.getFile().delete();
+            counter.deleted(entry.getSize());
+          } catch (SmbException e) {
+            counter.failed(entry.getFile().getPath(), e);
+          }
+        });
+    return counter.toReport();
+  }
+
+  /**
+   * Visit the entries of route while they are received from the server, without building the
+   * whole {@code SmbFile[]}, so huge shares can be processed in constant memory.
+   *
+   * @param smbFile
+   * @param visitor receives each entry, returning false skips the rest of them. The listing itself
+   *     runs to the end: aborting it from the filter would skip the close of the search and leak
+   *     its handle on the server.
+   * @return how many entries were visited.
+   */
+  public static int forEachFile(UploadableSmbFile smbFile, Predicate<SmbFile> visitor) {
+    int[] visited = {NumericConstants.ZERO};
+    boolean[] stopped = {false};
+    try {
+      smbFile
+          .getRoute()
+          .listFiles(
+              (SmbFileFilter)
+                  file -> {
+                    if (!stopped[0]) {
+                      visited[0]++;
+                      stopped[0] = !visitor.test(file);
+                    }
+                    return false;
+                  });
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+    if (stopped[0]) {
+      log.debug("Listing stopped by the visitor after {} entries", visited[0]);
+    }
+    return visited[0];
+  }
+
+  /**
+   * Allows to transfer a file using SMB, see {@link #transferLargeFile} for big files.
    *
    * @param smbFile smb file
    * @param file local file
@@ -133,7 +279,7 @@ public final class SmbUtil {
         byte[] buf = new byte[transferSpeed];
         int read = NumericConstants.ZERO;
         int count = NumericConstants.ZERO;
-        int sum = NumericConstants.ZERO;
+        long sum = NumericConstants.ZERO;
         while ((read = fis.read(buf)) > NumericConstants.ZERO) {
           smbos.write(buf, NumericConstants.ZERO, read);
           sum += read;
@@ -154,21 +300,89 @@ public final class SmbUtil {
     }
   }
 
-  public static List<SmbFile> getFilesSortedByLastModification(UploadableSmbFile smbFile) {
-    List<SmbFile> smbFiles = new ArrayList<>();
-    try {
-      SmbFile[] filesOnDir = getFilesFromDir(smbFile);
-      for (SmbFile file : filesOnDir) {
-        if (!file.isDirectory()) {
-          smbFiles.add(file);
+  /**
+   * Transfer a big file using SMB. A reader thread fills the next buffer from the local disk
+   * while the current one is written to the share, chunks are not flushed one by one and the
+   * progress is published from another thread.
+   *
+   * @param smbFile smb file, its route is reused when set (see {@link SmbSessionManager}).
+   * @param file local file
+   * @param options buffer size and progress interval.
+   * @param listener receives the progress, may be null.
+   * @return false if the local file doesn't exist.
+   * @throws TechnicalException on any error, the partial remote file is deleted.
+   */
+  public static boolean transferLargeFile(
+      UploadableSmbFile smbFile, String file, TransferOptions options, ProgressListener listener) {
+    Path local = Path.of(file);
+    if (!Files.isRegularFile(local)) {
+      return false;
+    }
+    BoundedPipe pipe = new BoundedPipe(options.getBufferSize(), DOUBLE_BUFFER);
+    SmbFile target = null;
+    boolean opened = false;
+    boolean copied = false;
+    // the executor is closed first, waiting for the reader before the source is closed
+    try (InputStream source = Files.newInputStream(local);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      target = resolve(smbFile, local.getFileName().toString());
+      Future<?> reader = executor.submit(() -> read(source, pipe));
+      try (InputStream is = pipe.getInput();
+          SmbFileOutputStream smbos = new SmbFileOutputStream(target);
+          ProgressReporter reporter =
+              new ProgressReporter(
+                  target.getPath(), Files.size(local), listener, options.getProgressInterval())) {
+        // the previous remote file is truncated once the stream is open
+        opened = true;
+        byte[] buf = new byte[Math.max(options.getBufferSize(), 1)];
+        int read;
+        while ((read = is.read(buf)) != NumericConstants.MINUS_ONE) {
+          smbos.write(buf, NumericConstants.ZERO, read);
+          reporter.add(read);
         }
       }
-      Comparator<SmbFile> smbFileComparator = Comparator.comparingLong(SmbFile::getLastModified);
-      smbFiles.sort(smbFileComparator);
+      reader.get();
+      copied = true;
+      return true;
+    } catch (ExecutionException e) {
+      throw new TechnicalException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException(e);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    } finally {
+      if (opened && !copied) {
+        deleteFile(target);
+      }
+    }
+  }
+
+  public static List<SmbFile> getFilesSortedByLastModification(UploadableSmbFile smbFile) {
+    try {
+      return getFileEntries(smbFile).stream()
+          .filter(entry -> !entry.isDirectory())
+          .sorted(BY_LAST_MODIFIED)
+          .map(SmbEntry::getFile)
+          .collect(Collectors.toList());
     } catch (Exception e) {
       log.error(e.getMessage(), e);
+      return new ArrayList<>();
     }
-    return smbFiles;
+  }
+
+  /**
+   * Get the entries of route reading the attributes of each one just once, as it is received from
+   * the server. jcifs keeps the attributes of the listing only for a few seconds, reading them
+   * later, as a comparator does while sorting a big dir, means another request per entry.
+   *
+   * @param smbFile
+   * @return entries in listing order.
+   */
+  public static List<SmbEntry> getFileEntries(UploadableSmbFile smbFile) {
+    List<SmbEntry> entries = new ArrayList<>();
+    forEachFile(smbFile, file -> entries.add(toEntry(file)));
+    return Collections.unmodifiableList(entries);
   }
 
   /**
@@ -177,7 +391,7 @@ public final class SmbUtil {
    * @param smbFile
    * @param sum
    */
-  private static void showProgress(SmbFile smbFile, int sum) {
+  private static void showProgress(SmbFile smbFile, long sum) {
     if (log.isInfoEnabled()) {
       StringBuilder progress = new StringBuilder();
       progress.append(smbFile);
@@ -188,6 +402,55 @@ public final class SmbUtil {
     }
   }
 
+  /**
+   * Feed the pipe with the source. The output is closed only once the source is fully read, on any
+   * error the pipe is failed instead so the writer doesn't end as if the file was whole.
+   */
+  static Void read(InputStream is, BoundedPipe pipe) throws IOException {
+    OutputStream os = pipe.getOutput();
+    try {
+      is.transferTo(os);
+      os.close();
+    } catch (IOException | RuntimeException e) {
+      pipe.fail(e);
+      throw e;
+    }
+    return null;
+  }
+
+  /**
+   * Copy a local file to the share without the progress machinery, for small files.
+   *
+   * @param local file to copy.
+   * @param target destination on the share.
+   * @param bufferSize bytes per write.
+   * @return bytes copied.
+   * @throws IOException on any read or write error.
+   */
+  static long write(Path local, SmbFile target, int bufferSize) throws IOException {
+    try (InputStream is = Files.newInputStream(local);
+        SmbFileOutputStream smbos = new SmbFileOutputStream(target)) {
+      byte[] buf = new byte[Math.max(bufferSize, 1)];
+      long total = NumericConstants.ZERO;
+      int read;
+      while ((read = is.read(buf)) != NumericConstants.MINUS_ONE) {
+        smbos.write(buf, NumericConstants.ZERO, read);
+        total += read;
+      }
+      return total;
+    }
+  }
+
+  /**
+   * Handle of a file inside the route of the smb file, built from the route when it's set so the
+   * credentials and connection are shared.
+   */
+  static SmbFile resolve(UploadableSmbFile smbFile, String name) throws IOException {
+    return smbFile.getRoute() != null
+        ? new SmbFile(smbFile.getRoute(), name)
+        : new SmbFile(smbFile.getUrl() + name, smbFile.getAuth());
+  }
+
   /**
    * Try to reconnect with no credentials.
    *
@@ -216,7 +479,17 @@ public final class SmbUtil {
     return b;
   }
 
-  private static SmbFile[] getFilesFromDir(UploadableSmbFile smbFile) throws SmbException {
-    return Optional.ofNullable(smbFile.getRoute().listFiles()).orElseGet(() -> new SmbFile[0]);
+  private static SmbEntry toEntry(SmbFile file) {
+    try {
+      boolean directory = file.isDirectory();
+      return new SmbEntry(
+          file,
+          file.getName(),
+          directory ? NumericConstants.ZERO : file.length(),
+          file.lastModified(),
+          directory);
+    } catch (SmbException e) {
+      throw new TechnicalException(e);
+    }
   }
 }
@@ -0,0 +1,87 @@
+package com.gsdd.file.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Keeps the written bytes in memory until they exceed a threshold, then moves them to a temp file,
+ * so the memory used per stream is bounded whatever the amount written.
+ */
+final class SpillOutputStream extends OutputStream {
+
+  private final int threshold;
+  private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+  private Path file;
+  private OutputStream fileOut;
+  private long size;
+
+  SpillOutputStream(int threshold) {
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (fileOut == null && memory.size() + (long) len > threshold) {
+      spill();
+    }
+    if (fileOut != null) {
+      fileOut.write(b, off, len);
+    } else {
+      memory.write(b, off, len);
+    }
+    size += len;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (fileOut != null) {
+      fileOut.close();
+    }
+  }
+
+  /** Close the stream and delete the temp file, if any. */
+  void discard() {
+    IoUtils.closeQuietly(fileOut);
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        file.toFile().deleteOnExit();
+      }
+    }
+  }
+
+  /**
+   * @return bytes written, null if they were moved to a file.
+   */
+  byte[] getData() {
+    return fileOut == null ? memory.toByteArray() : null;
+  }
+
+  /**
+   * @return temp file holding the bytes, null if they are in memory.
+   */
+  Path getFile() {
+    return file;
+  }
+
+  long getSize() {
+    return size;
+  }
+
+  private void spill() throws IOException {
+    file = Files.createTempFile("entry", ".spill");
+    fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+    memory.writeTo(fileOut);
+    memory = null;
+  }
+}
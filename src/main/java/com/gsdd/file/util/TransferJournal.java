@@ -0,0 +1,98 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Small properties file recording how far each resumable transfer got, so a process that crashed
+ * carries on from the last checkpoint. Each entry also keeps a tag of the source (e.g. its size and
+ * last modification), a checkpoint of a source that changed meanwhile is discarded.
+ */
+@Slf4j
+public class TransferJournal {
+
+  private static final String SEPARATOR = "|";
+
+  private final Path route;
+  private final Properties entries = new Properties();
+
+  /**
+   * Open a journal, loading it when the file exists.
+   *
+   * @param route properties file.
+   */
+  public TransferJournal(String route) {
+    this.route = Path.of(route);
+    if (Files.isRegularFile(this.route)) {
+      try (InputStream is = Files.newInputStream(this.route)) {
+        entries.load(is);
+      } catch (IOException | IllegalArgumentException e) {
+        log.warn("Ignoring transfer journal {}: {}", route, e.getMessage());
+        entries.clear();
+      }
+    }
+  }
+
+  /**
+   * Offset to resume a transfer from.
+   *
+   * @param key transfer id.
+   * @param source tag of the source being transferred.
+   * @return last checkpoint, -1 if there is none or it belongs to another version of the source.
+   */
+  public synchronized long getOffset(String key, String source) {
+    String entry = entries.getProperty(key);
+    int separator = entry != null ? entry.lastIndexOf(SEPARATOR) : NumericConstants.MINUS_ONE;
+    if (separator < NumericConstants.ZERO || !entry.substring(0, separator).equals(source)) {
+      return NumericConstants.MINUS_ONE;
+    }
+    try {
+      return Long.parseLong(entry.substring(separator + 1));
+    } catch (NumberFormatException e) {
+      return NumericConstants.MINUS_ONE;
+    }
+  }
+
+  /**
+   * Record the progress of a transfer.
+   *
+   * @param key transfer id.
+   * @param source tag of the source being transferred.
+   * @param offset bytes already stored on the target.
+   */
+  public synchronized void checkpoint(String key, String source, long offset) {
+    entries.setProperty(key, source + SEPARATOR + offset);
+    save();
+  }
+
+  /**
+   * Forget a finished transfer.
+   *
+   * @param key transfer id.
+   */
+  public synchronized void complete(String key) {
+    if (entries.remove(key) != null) {
+      save();
+    }
+  }
+
+  private void save() {
+    Path tmp = route.resolveSibling(route.getFileName() + ".tmp");
+    try {
+      try (OutputStream os = Files.newOutputStream(tmp)) {
+        entries.store(os, null);
+      }
+      Files.move(tmp, route, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+  }
+}
@@ -0,0 +1,345 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.FileConstants;
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.CompressedEntry;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Builds zip archives with several entries, deflating them in parallel and writing them in the
+ * same order they were given.
+ */
+@UtilityClass
+public final class ZipArchiver {
+
+  private static final int PENDING_PER_CORE = 2;
+  static final int DEFAULT_SPILL_THRESHOLD = 8 * 1024 * 1024;
+
+  /**
+   * Zip a list of files using the common fork-join pool.
+   *
+   * @param zipName name for zipped file.
+   * @param files files to compress, each one stored by its name, names must be unique.
+   * @param byteBuffer buffer used to read/deflate each file.
+   * @return true if ok.
+   */
+  public static boolean zipFiles(String zipName, List<File> files, int byteBuffer) {
+    return zipFiles(zipName, files, byteBuffer, ForkJoinPool.commonPool(), defaultMaxPending());
+  }
+
+  /**
+   * Zip a list of files deflating them on the given executor.
+   *
+   * @param zipName name for zipped file.
+   * @param files files to compress, each one stored by its name, names must be unique.
+   * @param byteBuffer buffer used to read/deflate each file.
+   * @param executor where the entries are deflated.
+   * @param maxPending max deflated entries waiting to be written, bounds the memory used along with
+   *     the spill threshold of each entry.
+   * @return true if ok.
+   */
+  public static boolean zipFiles(
+      String zipName,
+      List<File> files,
+      int byteBuffer,
+      ExecutorService executor,
+      int maxPending) {
+    try {
+      List<Path> paths = files.stream().map(File::toPath).collect(Collectors.toList());
+      return write(
+          zipName,
+          paths,
+          null,
+          byteBuffer,
+          executor,
+          maxPending,
+          (path, name) -> compress(path, name, byteBuffer, Deflater.DEFAULT_COMPRESSION, false));
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Zip every file under a directory tree using the common fork-join pool.
+   *
+   * @param zipName name for zipped file.
+   * @param route directory to compress, entries keep the path relative to it.
+   * @param byteBuffer buffer used to read/deflate each file.
+   * @return true if ok.
+   */
+  public static boolean zipDirectory(String zipName, String route, int byteBuffer) {
+    return zipDirectory(
+        zipName, route, byteBuffer, ForkJoinPool.commonPool(), defaultMaxPending());
+  }
+
+  /**
+   * Zip every file under a directory tree deflating them on the given executor.
+   *
+   * @param zipName name for zipped file.
+   * @param route directory to compress, entries keep the path relative to it.
+   * @param byteBuffer buffer used to read/deflate each file.
+   * @param executor where the entries are deflated.
+   * @param maxPending max deflated entries waiting to be written, bounds the memory used along with
+   *     the spill threshold of each entry.
+   * @return true if ok.
+   */
+  public static boolean zipDirectory(
+      String zipName, String route, int byteBuffer, ExecutorService executor, int maxPending) {
+    try {
+      Path root = Path.of(route);
+      return write(
+          zipName,
+          listTree(root, zipName),
+          root,
+          byteBuffer,
+          executor,
+          maxPending,
+          (path, name) -> compress(path, name, byteBuffer, Deflater.DEFAULT_COMPRESSION, false));
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Regular files under a directory tree sorted by path, skipping the archive being built.
+   *
+   * @param root tree to list.
+   * @param zipName archive that may be inside of the tree.
+   * @return files to compress.
+   * @throws IOException if the tree can't be walked.
+   */
+  static List<Path> listTree(Path root, String zipName) throws IOException {
+    Path target = Path.of(zipName).toAbsolutePath();
+    try (Stream<Path> tree = Files.walk(root)) {
+      return tree.filter(Files::isRegularFile)
+          .filter(path -> !path.toAbsolutePath().equals(target))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Compress the entries on the executor and append them in order from the calling thread, which
+   * acts as the only writer of the archive. On any error the archive is closed without central
+   * directory and deleted, so no partial zip is left behind.
+   */
+  static boolean write(
+      String zipName,
+      List<Path> paths,
+      Path root,
+      int byteBuffer,
+      ExecutorService executor,
+      int maxPending,
+      EntryCompressor compressor)
+      throws IOException, InterruptedException {
+    List<String> names = entryNames(root, paths);
+    Deque<Future<CompressedEntry>> pending = new ArrayDeque<>();
+    Spills spills = new Spills();
+    ZipStreamWriter writer =
+        new ZipStreamWriter(new BufferedOutputStream(new FileOutputStream(zipName), byteBuffer));
+    try {
+      for (int i = 0; i < paths.size(); i++) {
+        Path path = paths.get(i);
+        String name = names.get(i);
+        pending.add(executor.submit(() -> spills.track(compressor.compress(path, name))));
+        if (pending.size() >= Math.max(1, maxPending)) {
+          append(writer, spills, await(pending.poll()));
+        }
+      }
+      while (!pending.isEmpty()) {
+        append(writer, spills, await(pending.poll()));
+      }
+      writer.close();
+      return true;
+    } catch (IOException | InterruptedException | RuntimeException e) {
+      pending.forEach(future -> future.cancel(true));
+      spills.abort();
+      writer.abort();
+      try {
+        Files.deleteIfExists(Path.of(zipName));
+      } catch (IOException deleteError) {
+        e.addSuppressed(deleteError);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Read a file compressing it, in memory up to the default spill threshold.
+   *
+   * @param path file to compress.
+   * @param name entry name.
+   * @param byteBuffer read/deflate buffer.
+   * @param level deflate level.
+   * @param storeOnly if true the content is stored without compression.
+   * @return entry ready to be written.
+   * @throws IOException if the file can't be read.
+   */
+  static CompressedEntry compress(
+      Path path, String name, int byteBuffer, int level, boolean storeOnly) throws IOException {
+    return compress(path, name, byteBuffer, level, storeOnly, DEFAULT_SPILL_THRESHOLD);
+  }
+
+  /**
+   * Read a file compressing it. The compressed bytes are kept in memory up to the threshold and
+   * in a temp file beyond it, so memory doesn't grow with the entry size.
+   *
+   * @param path file to compress.
+   * @param name entry name.
+   * @param byteBuffer read/deflate buffer.
+   * @param level deflate level.
+   * @param storeOnly if true the content is stored without compression.
+   * @param spillThreshold max compressed bytes held in memory.
+   * @return entry ready to be written.
+   * @throws IOException if the file can't be read.
+   */
+  static CompressedEntry compress(
+      Path path, String name, int byteBuffer, int level, boolean storeOnly, int spillThreshold)
+      throws IOException {
+    Deflater deflater = new Deflater(level, true);
+    CRC32 crc = new CRC32();
+    long size = NumericConstants.ZERO;
+    SpillOutputStream spill = new SpillOutputStream(spillThreshold);
+    try (InputStream is = new FileInputStream(path.toFile())) {
+      try (OutputStream os =
+          storeOnly ? spill : new DeflaterOutputStream(spill, deflater, byteBuffer)) {
+        byte[] buffer = new byte[byteBuffer];
+        int read;
+        while ((read = is.read(buffer)) != NumericConstants.MINUS_ONE) {
+          crc.update(buffer, NumericConstants.ZERO, read);
+          os.write(buffer, NumericConstants.ZERO, read);
+          size += read;
+        }
+      }
+      return new CompressedEntry(
+          name,
+          storeOnly ? ZipEntry.STORED : ZipEntry.DEFLATED,
+          NumericConstants.ZERO,
+          FileConstants.ZIP_VERSION,
+          crc.getValue(),
+          size,
+          Files.getLastModifiedTime(path).toMillis(),
+          new byte[0],
+          spill.getData(),
+          spill.getFile(),
+          spill.getSize());
+    } catch (IOException | RuntimeException e) {
+      spill.discard();
+      throw e;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static void append(ZipStreamWriter writer, Spills spills, CompressedEntry entry)
+      throws IOException {
+    try {
+      writer.writeEntry(entry);
+    } finally {
+      spills.release(entry);
+    }
+  }
+
+  static CompressedEntry await(Future<CompressedEntry> future)
+      throws IOException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw new TechnicalException(e.getCause());
+    }
+  }
+
+  static int defaultMaxPending() {
+    return Runtime.getRuntime().availableProcessors() * PENDING_PER_CORE;
+  }
+
+  /**
+   * @return entry name of each path.
+   * @throws ZipException if two paths get the same name, like files named alike in different dirs.
+   */
+  private static List<String> entryNames(Path root, List<Path> paths) throws ZipException {
+    List<String> names = new ArrayList<>(paths.size());
+    Set<String> unique = new HashSet<>();
+    for (Path path : paths) {
+      String name = entryName(root, path);
+      if (!unique.add(name)) {
+        throw new ZipException("Duplicate entry: " + name);
+      }
+      names.add(name);
+    }
+    return names;
+  }
+
+  static String entryName(Path root, Path path) {
+    if (root == null) {
+      return path.getFileName().toString();
+    }
+    return root.relativize(path).toString().replace(File.separator, FileConstants.ZIP_SEPARATOR);
+  }
+
+  /**
+   * Entries compressed but not written yet. Workers may still finish an entry after the archive
+   * was aborted, the lock makes sure its temp file is deleted either way.
+   */
+  private static final class Spills {
+
+    private final Set<CompressedEntry> live = new HashSet<>();
+    private boolean aborted;
+
+    synchronized CompressedEntry track(CompressedEntry entry) {
+      if (aborted) {
+        entry.discard();
+      } else {
+        live.add(entry);
+      }
+      return entry;
+    }
+
+    synchronized void release(CompressedEntry entry) {
+      live.remove(entry);
+      entry.discard();
+    }
+
+    synchronized void abort() {
+      aborted = true;
+      live.forEach(CompressedEntry::discard);
+      live.clear();
+    }
+  }
+
+  @FunctionalInterface
+  interface EntryCompressor {
+
+    CompressedEntry compress(Path path, String name) throws IOException;
+  }
+}
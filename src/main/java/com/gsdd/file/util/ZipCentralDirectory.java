@@ -0,0 +1,154 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.FileConstants;
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.file.util.model.ArchiveEntry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+
+/** Reads the central directory of a zip archive without touching the entries data. */
+@UtilityClass
+final class ZipCentralDirectory {
+
+  private static final int END_SIZE = 22;
+  private static final int MAX_COMMENT = 0xFFFF;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int ZIP64_END_MIN_SIZE = 56;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final Charset LEGACY_CHARSET = Charset.forName("IBM437");
+
+  static List<ArchiveEntry> read(FileChannel channel) throws IOException {
+    long fileSize = channel.size();
+    int tailSize = (int) Math.min(fileSize, END_SIZE + MAX_COMMENT);
+    ByteBuffer tail = readFully(channel, fileSize - tailSize, tailSize);
+    int endPos = findEnd(tail);
+    if (endPos < NumericConstants.ZERO) {
+      throw new IOException("Zip end of central directory not found");
+    }
+    long entries = tail.getShort(endPos + 10) & 0xFFFFL;
+    long centralSize = tail.getInt(endPos + 12) & FileConstants.ZIP64_MAGIC;
+    long centralOffset = tail.getInt(endPos + 16) & FileConstants.ZIP64_MAGIC;
+    long endOffset = fileSize - tailSize + endPos;
+    if ((entries == FileConstants.ZIP64_MAGIC_COUNT
+            || centralSize == FileConstants.ZIP64_MAGIC
+            || centralOffset == FileConstants.ZIP64_MAGIC)
+        && endOffset >= ZIP64_LOCATOR_SIZE) {
+      ByteBuffer locator =
+          readFully(channel, endOffset - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+      if (locator.getInt(NumericConstants.ZERO) == FileConstants.ZIP64_LOCATOR_SIG) {
+        ByteBuffer end = readFully(channel, locator.getLong(8), ZIP64_END_MIN_SIZE);
+        if (end.getInt(NumericConstants.ZERO) != FileConstants.ZIP64_END_SIG) {
+          throw new IOException("Invalid zip64 end of central directory");
+        }
+        entries = end.getLong(32);
+        centralSize = end.getLong(40);
+        centralOffset = end.getLong(48);
+      }
+    }
+    if (centralSize > Integer.MAX_VALUE) {
+      throw new IOException("Central directory too big: " + centralSize);
+    }
+    ByteBuffer central =
+        channel
+            .map(FileChannel.MapMode.READ_ONLY, centralOffset, centralSize)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    return parse(central, entries);
+  }
+
+  /**
+   * Position where the data of an entry starts, reading its local header.
+   *
+   * @param channel archive.
+   * @param entry entry to locate.
+   * @return absolute offset of the entry data.
+   * @throws IOException if the local header is not valid.
+   */
+  static long dataOffset(FileChannel channel, ArchiveEntry entry) throws IOException {
+    ByteBuffer local = readFully(channel, entry.getLocalHeaderOffset(), LOCAL_HEADER_SIZE);
+    if (local.getInt(NumericConstants.ZERO) != FileConstants.ZIP_LOCAL_HEADER_SIG) {
+      throw new IOException("Invalid local header for entry: " + entry.getName());
+    }
+    int nameLength = local.getShort(26) & 0xFFFF;
+    int extraLength = local.getShort(28) & 0xFFFF;
+    return entry.getLocalHeaderOffset() + LOCAL_HEADER_SIZE + nameLength + extraLength;
+  }
+
+  private static List<ArchiveEntry> parse(ByteBuffer central, long entries) throws IOException {
+    List<ArchiveEntry> result = new ArrayList<>((int) Math.min(entries, Integer.MAX_VALUE));
+    int pos = NumericConstants.ZERO;
+    while (pos + CENTRAL_HEADER_SIZE <= central.limit()
+        && central.getInt(pos) == FileConstants.ZIP_CENTRAL_HEADER_SIG) {
+      int flags = central.getShort(pos + 8) & 0xFFFF;
+      int method = central.getShort(pos + 10) & 0xFFFF;
+      long crc = central.getInt(pos + 16) & FileConstants.ZIP64_MAGIC;
+      long compressedSize = central.getInt(pos + 20) & FileConstants.ZIP64_MAGIC;
+      long size = central.getInt(pos + 24) & FileConstants.ZIP64_MAGIC;
+      int nameLength = central.getShort(pos + 28) & 0xFFFF;
+      int extraLength = central.getShort(pos + 30) & 0xFFFF;
+      int commentLength = central.getShort(pos + 32) & 0xFFFF;
+      long localOffset = central.getInt(pos + 42) & FileConstants.ZIP64_MAGIC;
+      byte[] name = new byte[nameLength];
+      central.get(pos + CENTRAL_HEADER_SIZE, name);
+      int extraPos = pos + CENTRAL_HEADER_SIZE + nameLength;
+      int extraEnd = extraPos + extraLength;
+      while (extraPos + 4 <= extraEnd) {
+        int id = central.getShort(extraPos) & 0xFFFF;
+        int length = central.getShort(extraPos + 2) & 0xFFFF;
+        if (id == FileConstants.ZIP64_EXTRA_ID) {
+          int field = extraPos + 4;
+          if (size == FileConstants.ZIP64_MAGIC) {
+            size = central.getLong(field);
+            field += Long.BYTES;
+          }
+          if (compressedSize == FileConstants.ZIP64_MAGIC) {
+            compressedSize = central.getLong(field);
+            field += Long.BYTES;
+          }
+          if (localOffset == FileConstants.ZIP64_MAGIC) {
+            localOffset = central.getLong(field);
+          }
+        }
+        extraPos += 4 + length;
+      }
+      Charset charset =
+          (flags & FileConstants.ZIP_FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : LEGACY_CHARSET;
+      result.add(
+          new ArchiveEntry(
+              new String(name, charset), method, flags, crc, compressedSize, size, localOffset));
+      pos = extraEnd + commentLength;
+    }
+    if (result.size() != entries) {
+      throw new IOException(
+          "Central directory has " + result.size() + " entries, expected " + entries);
+    }
+    return result;
+  }
+
+  private static int findEnd(ByteBuffer tail) {
+    for (int pos = tail.limit() - END_SIZE; pos >= NumericConstants.ZERO; pos--) {
+      if (tail.getInt(pos) == FileConstants.ZIP_END_SIG) {
+        return pos;
+      }
+    }
+    return NumericConstants.MINUS_ONE;
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, long position, int size)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < NumericConstants.ZERO) {
+        throw new IOException("Unexpected end of zip file");
+      }
+    }
+    return buffer.flip();
+  }
+}
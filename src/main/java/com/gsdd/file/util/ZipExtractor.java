@@ -0,0 +1,250 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.ArchiveEntry;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Zip extraction, either streaming with a single buffer shared by every entry or random access
+ * through the central directory so entries can be inflated in parallel.
+ */
+@UtilityClass
+public final class ZipExtractor {
+
+  private static final long MAP_CHUNK = 1L << 26;
+
+  /**
+   * Unzip a zipped file.
+   *
+   * @param inputZip zipped file.
+   * @param outDir output for files, created if needed.
+   * @param byteBuffer buffer shared by all the entries.
+   * @return how many files were extracted.
+   */
+  public static int unzip(String inputZip, String outDir, int byteBuffer) {
+    try (InputStream fis = new FileInputStream(inputZip)) {
+      return unzip(fis, Path.of(outDir), byteBuffer);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Unzip a zip stream, the stream is not closed.
+   *
+   * @param input zip content.
+   * @param outDir output for files, created if needed.
+   * @param byteBuffer buffer shared by all the entries.
+   * @return how many files were extracted.
+   * @throws IOException if the content can't be read/written or an entry escapes outDir.
+   */
+  public static int unzip(InputStream input, Path outDir, int byteBuffer) throws IOException {
+    Path root = Files.createDirectories(outDir).toRealPath();
+    byte[] buffer = new byte[byteBuffer];
+    ByteBuffer window = ByteBuffer.wrap(buffer);
+    Path lastParent = null;
+    int extracted = NumericConstants.ZERO;
+    ZipInputStream zis = new ZipInputStream(new BufferedInputStream(input, byteBuffer));
+    ZipEntry entry;
+    while ((entry = zis.getNextEntry()) != null) {
+      Path target = resolveEntry(root, entry.getName());
+      if (entry.isDirectory()) {
+        Files.createDirectories(target);
+        continue;
+      }
+      Path parent = target.getParent();
+      if (!parent.equals(lastParent)) {
+        Files.createDirectories(parent);
+        lastParent = parent;
+      }
+      try (FileChannel channel =
+          FileChannel.open(
+              target,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        int read;
+        while ((read = zis.read(buffer, NumericConstants.ZERO, buffer.length))
+            != NumericConstants.MINUS_ONE) {
+          window.clear().limit(read);
+          while (window.hasRemaining()) {
+            channel.write(window);
+          }
+        }
+      }
+      extracted++;
+    }
+    return extracted;
+  }
+
+  /**
+   * List the entries of a zip reading only its central directory.
+   *
+   * @param inputZip zipped file.
+   * @return entries in central directory order.
+   */
+  public static List<ArchiveEntry> listEntries(String inputZip) {
+    try (FileChannel channel = FileChannel.open(Path.of(inputZip), StandardOpenOption.READ)) {
+      return ZipCentralDirectory.read(channel);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  /**
+   * Extract the entries accepted by the filter in parallel using the common fork-join pool.
+   *
+   * @param inputZip zipped file.
+   * @param outDir output for files, created if needed.
+   * @param filter receives the entry name, only the accepted ones are extracted.
+   * @param byteBuffer inflate buffer used by each worker.
+   * @return how many files were extracted.
+   */
+  public static int extract(
+      String inputZip, String outDir, Predicate<String> filter, int byteBuffer) {
+    return extract(inputZip, outDir, filter, byteBuffer, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Extract the entries accepted by the filter in parallel. The central directory is read once
+   * and each entry is inflated straight from a mapped region of the archive, so picking a few
+   * entries out of a big archive never reads the rest of it.
+   *
+   * @param inputZip zipped file.
+   * @param outDir output for files, created if needed.
+   * @param filter receives the entry name, only the accepted ones are extracted.
+   * @param byteBuffer inflate buffer used by each worker.
+   * @param pool where the entries are inflated.
+   * @return how many files were extracted.
+   */
+  public static int extract(
+      String inputZip,
+      String outDir,
+      Predicate<String> filter,
+      int byteBuffer,
+      ForkJoinPool pool) {
+    try (FileChannel channel = FileChannel.open(Path.of(inputZip), StandardOpenOption.READ)) {
+      Path root = Files.createDirectories(Path.of(outDir)).toRealPath();
+      List<ArchiveEntry> selected =
+          ZipCentralDirectory.read(channel).stream()
+              .filter(entry -> filter.test(entry.getName()))
+              .collect(Collectors.toList());
+      List<Callable<Boolean>> tasks = new ArrayList<>(selected.size());
+      for (ArchiveEntry entry : selected) {
+        Path target = resolveEntry(root, entry.getName());
+        tasks.add(() -> extractEntry(channel, entry, target, byteBuffer));
+      }
+      int extracted = NumericConstants.ZERO;
+      for (Future<Boolean> result : pool.invokeAll(tasks)) {
+        if (Boolean.TRUE.equals(result.get())) {
+          extracted++;
+        }
+      }
+      return extracted;
+    } catch (ExecutionException e) {
+      throw new TechnicalException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException(e);
+    } catch (Exception e) {
+      throw new TechnicalException(e);
+    }
+  }
+
+  private static boolean extractEntry(
+      FileChannel channel, ArchiveEntry entry, Path target, int byteBuffer)
+      throws IOException, DataFormatException {
+    if (entry.isDirectory()) {
+      Files.createDirectories(target);
+      return false;
+    }
+    if (entry.isEncrypted()) {
+      throw new IOException("Encrypted entry is not supported: " + entry.getName());
+    }
+    if (entry.getMethod() != ZipEntry.STORED && entry.getMethod() != ZipEntry.DEFLATED) {
+      throw new IOException("Unsupported compression method for entry: " + entry.getName());
+    }
+    Files.createDirectories(target.getParent());
+    long start = ZipCentralDirectory.dataOffset(channel, entry);
+    long end = start + entry.getCompressedSize();
+    CRC32 crc = new CRC32();
+    Inflater inflater = new Inflater(true);
+    ByteBuffer out = ByteBuffer.allocateDirect(byteBuffer);
+    try (FileChannel output =
+        FileChannel.open(
+            target,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (long pos = start; pos < end; pos += MAP_CHUNK) {
+        ByteBuffer chunk =
+            channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_CHUNK, end - pos));
+        if (entry.getMethod() == ZipEntry.STORED) {
+          crc.update(chunk.duplicate());
+          writeFully(output, chunk);
+        } else {
+          inflater.setInput(chunk);
+          while (!inflater.needsInput() && !inflater.finished()) {
+            out.clear();
+            inflater.inflate(out);
+            out.flip();
+            crc.update(out.duplicate());
+            writeFully(output, out);
+          }
+        }
+      }
+    } finally {
+      inflater.end();
+    }
+    if (crc.getValue() != entry.getCrc()) {
+      throw new IOException("Invalid CRC for entry: " + entry.getName());
+    }
+    return true;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Resolve an entry name against the output dir, rejecting names that would end outside of it
+   * (zip slip).
+   *
+   * @param root normalized output dir.
+   * @param name entry name.
+   * @return target path.
+   * @throws IOException if the entry escapes root.
+   */
+  static Path resolveEntry(Path root, String name) throws IOException {
+    Path target = root.resolve(name).normalize();
+    if (!target.startsWith(root)) {
+      throw new IOException("Entry is outside of the target dir: " + name);
+    }
+    return target;
+  }
+}
@@ -0,0 +1,221 @@
+package com.gsdd.file.util;
+
+import com.gsdd.constants.FileConstants;
+import com.gsdd.constants.NumericConstants;
+import com.gsdd.file.util.model.CompressedEntry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes already compressed entries into a zip archive, keeping the central directory in memory
+ * until the stream is closed. Zip64 records are only emitted when sizes, offsets or entry count
+ * need them.
+ */
+final class ZipStreamWriter implements Closeable {
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_SIZE = 22;
+  private static final int ZIP64_END_SIZE = 56;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int ZIP64_EXTRA_HEADER = 4;
+  private static final int DOS_MIN_YEAR = 1980;
+  private static final int DOS_MIN_DATE = (1 << 21) | (1 << 16);
+
+  private final OutputStream out;
+  private final List<CentralRecord> central = new ArrayList<>();
+  private long offset;
+  private boolean closed;
+
+  ZipStreamWriter(OutputStream out) {
+    this.out = out;
+  }
+
+  void writeEntry(CompressedEntry entry) throws IOException {
+    boolean zip64 = needsZip64(entry);
+    byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+    byte[] extra = entry.getExtra();
+    int extraLength = extra.length + (zip64 ? ZIP64_EXTRA_HEADER + Long.BYTES * 2 : 0);
+    int dosTime = toDosTime(entry.getLastModified());
+    ByteBuffer header = littleEndian(LOCAL_HEADER_SIZE + name.length + extraLength);
+    header.putInt(FileConstants.ZIP_LOCAL_HEADER_SIG);
+    header.putShort((short) version(entry, zip64));
+    header.putShort((short) (entry.getFlags() | FileConstants.ZIP_FLAG_UTF8));
+    header.putShort((short) entry.getMethod());
+    header.putInt(dosTime);
+    header.putInt((int) entry.getCrc());
+    header.putInt((int) (zip64 ? FileConstants.ZIP64_MAGIC : entry.getCompressedSize()));
+    header.putInt((int) (zip64 ? FileConstants.ZIP64_MAGIC : entry.getSize()));
+    header.putShort((short) name.length);
+    header.putShort((short) extraLength);
+    header.put(name);
+    header.put(extra);
+    if (zip64) {
+      header.putShort((short) FileConstants.ZIP64_EXTRA_ID);
+      header.putShort((short) (Long.BYTES * 2));
+      header.putLong(entry.getSize());
+      header.putLong(entry.getCompressedSize());
+    }
+    central.add(new CentralRecord(entry, name, dosTime, offset));
+    write(header.array());
+    if (entry.getData() != null) {
+      write(entry.getData());
+    } else {
+      offset += Files.copy(entry.getDataFile(), out);
+    }
+  }
+
+  /**
+   * Close the archive without the central directory, after an error. The output is left
+   * unreadable as a zip, it's up to the caller to delete it.
+   */
+  void abort() {
+    closed = true;
+    IoUtils.closeQuietly(out);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      long centralOffset = offset;
+      for (CentralRecord record : central) {
+        write(record.toBytes());
+      }
+      long centralSize = offset - centralOffset;
+      boolean zip64 =
+          central.size() >= FileConstants.ZIP64_MAGIC_COUNT
+              || centralOffset >= FileConstants.ZIP64_MAGIC
+              || centralSize >= FileConstants.ZIP64_MAGIC;
+      if (zip64) {
+        writeZip64End(centralOffset, centralSize);
+      }
+      ByteBuffer end = littleEndian(END_SIZE);
+      end.putInt(FileConstants.ZIP_END_SIG);
+      end.putShort((short) NumericConstants.ZERO);
+      end.putShort((short) NumericConstants.ZERO);
+      short count = (short) Math.min(central.size(), FileConstants.ZIP64_MAGIC_COUNT);
+      end.putShort(count);
+      end.putShort(count);
+      end.putInt((int) Math.min(centralSize, FileConstants.ZIP64_MAGIC));
+      end.putInt((int) Math.min(centralOffset, FileConstants.ZIP64_MAGIC));
+      end.putShort((short) NumericConstants.ZERO);
+      write(end.array());
+      out.flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  private void writeZip64End(long centralOffset, long centralSize) throws IOException {
+    long endOffset = offset;
+    ByteBuffer end = littleEndian(ZIP64_END_SIZE + ZIP64_LOCATOR_SIZE);
+    end.putInt(FileConstants.ZIP64_END_SIG);
+    end.putLong(ZIP64_END_SIZE - 12L);
+    end.putShort((short) FileConstants.ZIP64_VERSION);
+    end.putShort((short) FileConstants.ZIP64_VERSION);
+    end.putInt(NumericConstants.ZERO);
+    end.putInt(NumericConstants.ZERO);
+    end.putLong(central.size());
+    end.putLong(central.size());
+    end.putLong(centralSize);
+    end.putLong(centralOffset);
+    end.putInt(FileConstants.ZIP64_LOCATOR_SIG);
+    end.putInt(NumericConstants.ZERO);
+    end.putLong(endOffset);
+    end.putInt(1);
+    write(end.array());
+  }
+
+  private void write(byte[] bytes) throws IOException {
+    out.write(bytes);
+    offset += bytes.length;
+  }
+
+  private static boolean needsZip64(CompressedEntry entry) {
+    return entry.getSize() >= FileConstants.ZIP64_MAGIC
+        || entry.getCompressedSize() >= FileConstants.ZIP64_MAGIC;
+  }
+
+  private static int version(CompressedEntry entry, boolean zip64) {
+    return zip64
+        ? Math.max(entry.getVersionNeeded(), FileConstants.ZIP64_VERSION)
+        : entry.getVersionNeeded();
+  }
+
+  static ByteBuffer littleEndian(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  static int toDosTime(long millis) {
+    LocalDateTime time =
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    if (time.getYear() < DOS_MIN_YEAR) {
+      return DOS_MIN_DATE;
+    }
+    return (time.getYear() - DOS_MIN_YEAR) << 25
+        | time.getMonthValue() << 21
+        | time.getDayOfMonth() << 16
+        | time.getHour() << 11
+        | time.getMinute() << 5
+        | time.getSecond() >> 1;
+  }
+
+  private record CentralRecord(CompressedEntry entry, byte[] name, int dosTime, long localOffset) {
+
+    byte[] toBytes() {
+      boolean zip64Sizes = needsZip64(entry);
+      boolean zip64Offset = localOffset >= FileConstants.ZIP64_MAGIC;
+      int zip64Fields = (zip64Sizes ? 2 : 0) + (zip64Offset ? 1 : 0);
+      byte[] extra = entry.getExtra();
+      int extraLength =
+          extra.length
+              + (zip64Fields > 0 ? ZIP64_EXTRA_HEADER + Long.BYTES * zip64Fields : 0);
+      int version = version(entry, zip64Fields > 0);
+      ByteBuffer header = littleEndian(CENTRAL_HEADER_SIZE + name.length + extraLength);
+      header.putInt(FileConstants.ZIP_CENTRAL_HEADER_SIG);
+      header.putShort((short) version);
+      header.putShort((short) version);
+      header.putShort((short) (entry.getFlags() | FileConstants.ZIP_FLAG_UTF8));
+      header.putShort((short) entry.getMethod());
+      header.putInt(dosTime);
+      header.putInt((int) entry.getCrc());
+      header.putInt((int) (zip64Sizes ? FileConstants.ZIP64_MAGIC : entry.getCompressedSize()));
+      header.putInt((int) (zip64Sizes ? FileConstants.ZIP64_MAGIC : entry.getSize()));
+      header.putShort((short) name.length);
+      header.putShort((short) extraLength);
+      header.putShort((short) NumericConstants.ZERO);
+      header.putShort((short) NumericConstants.ZERO);
+      header.putShort((short) NumericConstants.ZERO);
+      header.putInt(NumericConstants.ZERO);
+      header.putInt((int) (zip64Offset ? FileConstants.ZIP64_MAGIC : localOffset));
+      header.put(name);
+      header.put(extra);
+      if (zip64Fields > 0) {
+        header.putShort((short) FileConstants.ZIP64_EXTRA_ID);
+        header.putShort((short) (Long.BYTES * zip64Fields));
+        if (zip64Sizes) {
+          header.putLong(entry.getSize());
+          header.putLong(entry.getCompressedSize());
+        }
+        if (zip64Offset) {
+          header.putLong(localOffset);
+        }
+      }
+      return header.array();
+    }
+  }
+}
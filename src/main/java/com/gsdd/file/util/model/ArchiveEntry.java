@@ -0,0 +1,30 @@
+package com.gsdd.file.util.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/** Zip entry as described by the central directory of an archive. */
+@Generated
+@Getter
+@ToString
+@AllArgsConstructor
+public class ArchiveEntry {
+
+  private final String name;
+  private final int method;
+  private final int flags;
+  private final long crc;
+  private final long compressedSize;
+  private final long size;
+  private final long localHeaderOffset;
+
+  public boolean isDirectory() {
+    return name.endsWith("/");
+  }
+
+  public boolean isEncrypted() {
+    return (flags & 1) != 0;
+  }
+}
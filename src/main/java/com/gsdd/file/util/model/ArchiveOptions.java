@@ -0,0 +1,29 @@
+package com.gsdd.file.util.model;
+
+import java.util.zip.Deflater;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Generated
+@Getter
+@Setter
+@ToString
+public class ArchiveOptions {
+
+  /** Buffer used to read/compress each file. */
+  private int byteBuffer = 8192;
+
+  /** Deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}. */
+  private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+  /** Store the content without compression, useful for inputs that are already compressed. */
+  private boolean storeOnly;
+
+  /** Max finished entries waiting to be written, bounds the memory used. */
+  private int maxPending = Runtime.getRuntime().availableProcessors() * 2;
+
+  /** Max compressed bytes of an entry held in memory, bigger entries go to a temp file. */
+  private int spillThreshold = 8 * 1024 * 1024;
+}
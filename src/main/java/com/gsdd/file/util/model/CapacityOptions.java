@@ -0,0 +1,46 @@
+package com.gsdd.file.util.model;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Generated
+@Getter
+@Setter
+@ToString
+public class CapacityOptions {
+
+  /**
+   * Free space phrase, like "Free space: 2.5 GB" or "1234 bytes available". The number must have a
+   * K/M/G/T/P unit, "B"/"bytes" or nothing else after it.
+   */
+  public static final String FREE_SPACE =
+      "\\b(?:free|avail(?:able)?)\\b(?:\\s+(?:disk\\s+)?space)?\\s*[:=]?\\s*(\\d+(?:\\.\\d+)?)"
+          + "(?:\\s*([KMGTP])(?:i?B)?\\b|\\s*(?:B|bytes?)\\b|(?![\\w.%]|\\s*[\\p{Alpha}%]))"
+          + "|(?<![\\w.])(\\d+(?:\\.\\d+)?)(?:\\s*([KMGTP])(?:i?B)?|\\s*(?:B|bytes?))?"
+          + "\\s+(?:free|avail(?:able)?)\\b";
+
+  /** Commands tried in order, the dir is appended as last argument. */
+  private List<String> commands = List.of("AVBL", "SITE AVBL", "SITE FREE");
+
+  /**
+   * Regex of the positive reply of each command but AVBL, whose reply must be "213 bytes". On the
+   * first reply line it's found, the first group that matched is the number and the next one an
+   * optional K/M/G/T/P unit. Commands without a format are not sent.
+   */
+  private Map<String, String> replyFormats =
+      Map.of("SITE AVBL", FREE_SPACE, "SITE FREE", FREE_SPACE);
+
+  /** Look for the free space phrase on the STAT reply of the dir when no command works. */
+  private boolean useStat = true;
+
+  /** Free bytes assumed when the server can't tell, -1 to report it as unknown. */
+  private long fallbackEstimate = -1L;
+
+  /** How long a probe result is reused for the same server and dir. */
+  private Duration ttl = Duration.ofSeconds(30);
+}
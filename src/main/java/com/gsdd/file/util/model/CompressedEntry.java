@@ -0,0 +1,55 @@
+package com.gsdd.file.util.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.AllArgsConstructor;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Zip entry whose payload was already compressed (and optionally encrypted) by a worker thread, so
+ * it can be appended to the archive as-is. Small payloads are kept in memory, big ones in a temp
+ * file.
+ */
+@Generated
+@Getter
+@ToString(exclude = "data")
+@AllArgsConstructor
+public class CompressedEntry {
+
+  private final String name;
+  private final int method;
+  private final int flags;
+  private final int versionNeeded;
+  private final long crc;
+  private final long size;
+  private final long lastModified;
+  private final byte[] extra;
+
+  /** Payload, null when it's in {@link #dataFile}. */
+  private final byte[] data;
+
+  /** Temp file with the payload, null when it's in memory. */
+  private final Path dataFile;
+
+  private final long compressedSize;
+
+  public InputStream openData() throws IOException {
+    return data != null ? new ByteArrayInputStream(data) : Files.newInputStream(dataFile);
+  }
+
+  /** Delete the temp file of the payload, if any. */
+  public void discard() {
+    if (dataFile != null) {
+      try {
+        Files.deleteIfExists(dataFile);
+      } catch (IOException e) {
+        dataFile.toFile().deleteOnExit();
+      }
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.gsdd.file.util.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Formats available to compress a file while it's uploaded. */
+@Getter
+@AllArgsConstructor
+public enum CompressionFormat {
+  GZIP(".gz"),
+  ZIP(".zip");
+
+  /** Usual extension of the format, to build the remote name. */
+  private final String extension;
+}
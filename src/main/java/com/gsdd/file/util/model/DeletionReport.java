@@ -0,0 +1,36 @@
+package com.gsdd.file.util.model;
+
+import java.time.Duration;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/** Outcome of a bulk delete. */
+@Generated
+@Getter
+@ToString
+@AllArgsConstructor
+public class DeletionReport {
+
+  private final int deleted;
+  private final long bytesFreed;
+
+  /** Path of each file that could not be deleted with the error message. */
+  private final Map<String, String> failures;
+
+  private final Duration elapsed;
+
+  public int getFailed() {
+    return failures.size();
+  }
+
+  /**
+   * @return deleted files per second.
+   */
+  public double getThroughput() {
+    long millis = Math.max(elapsed.toMillis(), 1L);
+    return deleted * 1000d / millis;
+  }
+}
@@ -0,0 +1,27 @@
+package com.gsdd.file.util.model;
+
+import java.io.File;
+import java.nio.file.Path;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/** Attributes of a local file read once, so sorting and filtering don't hit the disk again. */
+@Generated
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class FileEntry {
+
+  private final Path path;
+  private final long size;
+  private final long lastModified;
+  private final boolean regularFile;
+
+  public File toFile() {
+    return path.toFile();
+  }
+}
@@ -0,0 +1,19 @@
+package com.gsdd.file.util.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/** A file to move between a local route and a remote one. */
+@Generated
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class FileTransfer {
+
+  private final String localRoute;
+  private final String remoteRoute;
+}
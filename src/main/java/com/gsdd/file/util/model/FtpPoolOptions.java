@@ -0,0 +1,38 @@
+package com.gsdd.file.util.model;
+
+import java.time.Duration;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Generated
+@Getter
+@Setter
+@ToString
+public class FtpPoolOptions {
+
+  /** Logged-in sessions kept ready per server, the evictor opens them again when missing. */
+  private int minIdle;
+
+  /** Max idle sessions kept per server, extra ones are disconnected when returned. */
+  private int maxIdle = 4;
+
+  /** Max sessions per server, idle or leased. */
+  private int maxTotal = 8;
+
+  /** Idle sessions older than this are disconnected by the evictor. */
+  private Duration idleTimeout = Duration.ofMinutes(5);
+
+  /** Max wait for a session when maxTotal are leased. */
+  private Duration leaseTimeout = Duration.ofSeconds(30);
+
+  /**
+   * How often the evictor runs, null or zero to not start it and call {@link
+   * com.gsdd.file.util.FtpSessionPool#evictIdle()} on demand.
+   */
+  private Duration evictionInterval = Duration.ofMinutes(1);
+
+  /** Send a NOOP before leasing an idle session, broken ones are replaced. */
+  private boolean validateOnBorrow = true;
+}
@@ -0,0 +1,75 @@
+package com.gsdd.file.util.model;
+
+import java.time.Duration;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Which files to keep on a dir, any file outside of the policy is expired. Policies can be
+ * combined with {@link #and(RetentionPolicy)}, a file is kept only if every limit keeps it.
+ */
+@Generated
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RetentionPolicy {
+
+  private final int keepNewest;
+  private final Duration maxAge;
+  private final long maxTotalSize;
+
+  /**
+   * Keep the newest files.
+   *
+   * @param backup how many files preserve.
+   * @return policy.
+   */
+  public static RetentionPolicy keepNewest(int backup) {
+    return new RetentionPolicy(Math.max(backup, 0), null, Long.MAX_VALUE);
+  }
+
+  /**
+   * Keep the files modified in the given period.
+   *
+   * @param maxAge max age of the files.
+   * @return policy.
+   */
+  public static RetentionPolicy keepYoungerThan(Duration maxAge) {
+    return new RetentionPolicy(Integer.MAX_VALUE, maxAge, Long.MAX_VALUE);
+  }
+
+  /**
+   * Keep the newest files while their total size is under the limit.
+   *
+   * @param maxTotalSize max bytes kept.
+   * @return policy.
+   */
+  public static RetentionPolicy keepTotalSizeUnder(long maxTotalSize) {
+    return new RetentionPolicy(Integer.MAX_VALUE, null, maxTotalSize);
+  }
+
+  /**
+   * Combine with another policy keeping the strictest limits of both.
+   *
+   * @param other policy.
+   * @return combined policy.
+   */
+  public RetentionPolicy and(RetentionPolicy other) {
+    Duration age = maxAge;
+    if (age == null || (other.maxAge != null && other.maxAge.compareTo(age) < 0)) {
+      age = other.maxAge;
+    }
+    return new RetentionPolicy(
+        Math.min(keepNewest, other.keepNewest), age, Math.min(maxTotalSize, other.maxTotalSize));
+  }
+
+  /**
+   * @return true if the policy needs to know the newest files, not just each file on its own.
+   */
+  public boolean isRanked() {
+    return keepNewest != Integer.MAX_VALUE || maxTotalSize != Long.MAX_VALUE;
+  }
+}
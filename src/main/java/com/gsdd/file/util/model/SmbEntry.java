@@ -0,0 +1,24 @@
+package com.gsdd.file.util.model;
+
+import jcifs.smb.SmbFile;
+import lombok.AllArgsConstructor;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Attributes of a SMB entry read once while listing, so sorting and filtering don't go back to the
+ * server.
+ */
+@Generated
+@Getter
+@ToString(exclude = "file")
+@AllArgsConstructor
+public class SmbEntry {
+
+  private final SmbFile file;
+  private final String name;
+  private final long size;
+  private final long lastModified;
+  private final boolean directory;
+}
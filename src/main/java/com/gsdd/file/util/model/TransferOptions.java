@@ -0,0 +1,38 @@
+package com.gsdd.file.util.model;
+
+import java.time.Duration;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Generated
+@Getter
+@Setter
+@ToString
+public class TransferOptions {
+
+  /** Files moved at the same time, each one over its own session. */
+  private int concurrency = 4;
+
+  /** Extra attempts for a failed file. */
+  private int retries = 2;
+
+  /** Wait before retrying a failed file. */
+  private Duration retryDelay = Duration.ofSeconds(1);
+
+  /** Buffer used to copy each stream. */
+  private int bufferSize = 1024 * 1024;
+
+  /** Min bytes per range on segmented downloads, smaller files use fewer segments. */
+  private long segmentSize = 8L * 1024 * 1024;
+
+  /** Bytes between checkpoints of resumable transfers. */
+  private long checkpointInterval = 16L * 1024 * 1024;
+
+  /** Idle time of the control connection before a NOOP is sent while the data one is busy. */
+  private Duration keepAliveInterval = Duration.ofMinutes(1);
+
+  /** Time between progress reports. */
+  private Duration progressInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,45 @@
+package com.gsdd.file.util.model;
+
+import java.time.Duration;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/** Outcome of a batch transfer, with a result per file in the order they were given. */
+@Generated
+@Getter
+@ToString
+@AllArgsConstructor
+public class TransferReport {
+
+  private final List<TransferResult> results;
+  private final Duration elapsed;
+
+  public int getSucceeded() {
+    return (int) results.stream().filter(TransferResult::isSuccess).count();
+  }
+
+  public List<TransferResult> getFailures() {
+    return results.stream().filter(result -> !result.isSuccess()).toList();
+  }
+
+  /**
+   * @return bytes of the files transferred.
+   */
+  public long getBytes() {
+    return results.stream()
+        .filter(TransferResult::isSuccess)
+        .mapToLong(TransferResult::getBytes)
+        .sum();
+  }
+
+  /**
+   * @return bytes transferred per second.
+   */
+  public double getThroughput() {
+    long millis = Math.max(elapsed.toMillis(), 1L);
+    return getBytes() * 1000d / millis;
+  }
+}
@@ -0,0 +1,25 @@
+package com.gsdd.file.util.model;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.ToString;
+
+/** Outcome of a single file of a batch transfer. */
+@Generated
+@Getter
+@ToString
+@AllArgsConstructor
+public class TransferResult {
+
+  private final FileTransfer transfer;
+  private final boolean success;
+  private final long bytes;
+  private final int attempts;
+
+  /** Message of the last error, null on success. */
+  private final String error;
+
+  private final Duration elapsed;
+}
@@ -0,0 +1,34 @@
+package com.gsdd.file.util.model;
+
+import java.util.concurrent.ForkJoinPool;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Generated
+@Getter
+@Setter
+@ToString
+public class WalkOptions {
+
+  /** How many levels to go down, 1 only looks at the files of the route itself. */
+  private int maxDepth = Integer.MAX_VALUE;
+
+  /**
+   * Optional filter for the files, using {@link java.nio.file.FileSystem#getPathMatcher(String)}
+   * syntax (e.g. {@code glob:**.log} or {@code regex:.*\.log}), matched against the path relative
+   * to the route.
+   */
+  private String pattern;
+
+  /** Split the subtrees across {@link #pool}. */
+  private boolean parallel;
+
+  /** Pool used by the parallel mode, the common pool if null. */
+  private ForkJoinPool pool;
+
+  public ForkJoinPool getPoolOrDefault() {
+    return pool != null ? pool : ForkJoinPool.commonPool();
+  }
+}
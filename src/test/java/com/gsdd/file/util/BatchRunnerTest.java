@@ -0,0 +1,170 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.TransferResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchRunnerTest {
+
+  private final List<String> copied = Collections.synchronizedList(new ArrayList<>());
+  private TransferOptions options;
+
+  @BeforeEach
+  void setUp() {
+    options = new TransferOptions();
+    options.setRetryDelay(Duration.ZERO);
+  }
+
+  @Test
+  void runLargestFirstTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(1);
+    List<FileTransfer> transfers = createFiles(tempDir, 1, 30, 20);
+    AtomicInteger closed = new AtomicInteger();
+    TransferReport report =
+        BatchRunner.run(
+            transfers,
+            options,
+            () ->
+                new BatchRunner.Worker() {
+                  @Override
+                  public long transfer(FileTransfer transfer) throws IOException {
+                    return write(transfer);
+                  }
+
+                  @Override
+                  public void close() {
+                    closed.incrementAndGet();
+                  }
+                });
+    Assertions.assertEquals(3, report.getSucceeded());
+    Assertions.assertEquals(List.of("remote/1", "remote/2", "remote/0"), copied);
+    Assertions.assertEquals(51L, report.getBytes());
+    Assertions.assertEquals(transfers.get(0), report.getResults().get(0).getTransfer());
+    Assertions.assertEquals(1, closed.get());
+  }
+
+  @Test
+  void runConcurrencyLimitTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(3);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger max = new AtomicInteger();
+    TransferReport report =
+        BatchRunner.run(
+            createFiles(tempDir, new int[30]),
+            options,
+            () ->
+                transfer -> {
+                  max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                  try {
+                    Thread.sleep(5);
+                    return write(transfer);
+                  } finally {
+                    running.decrementAndGet();
+                  }
+                });
+    Assertions.assertEquals(30, report.getSucceeded());
+    Assertions.assertEquals(30, copied.size());
+    Assertions.assertTrue(max.get() <= 3);
+  }
+
+  @Test
+  void runRetryTest(@TempDir Path tempDir) throws IOException {
+    options.setRetries(1);
+    AtomicInteger calls = new AtomicInteger();
+    TransferReport report =
+        BatchRunner.run(
+            createFiles(tempDir, 5),
+            options,
+            () ->
+                transfer -> {
+                  if (calls.getAndIncrement() == 0) {
+                    throw new IOException("reset");
+                  }
+                  return write(transfer);
+                });
+    TransferResult result = report.getResults().getFirst();
+    Assertions.assertTrue(result.isSuccess());
+    Assertions.assertEquals(2, result.getAttempts());
+    Assertions.assertNull(result.getError());
+  }
+
+  @Test
+  void runFailureTest(@TempDir Path tempDir) throws IOException {
+    options.setRetries(2);
+    TransferReport report =
+        BatchRunner.run(
+            createFiles(tempDir, 5, 7),
+            options,
+            () ->
+                transfer -> {
+                  if (transfer.getRemoteRoute().endsWith("0")) {
+                    throw new IOException("denied");
+                  }
+                  return write(transfer);
+                });
+    Assertions.assertEquals(1, report.getSucceeded());
+    TransferResult failure = report.getFailures().getFirst();
+    Assertions.assertEquals("denied", failure.getError());
+    Assertions.assertEquals(3, failure.getAttempts());
+    Assertions.assertEquals(7L, report.getBytes());
+  }
+
+  @Test
+  void runUnavailableTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(2);
+    options.setRetries(1);
+    AtomicInteger calls = new AtomicInteger();
+    TransferReport report =
+        BatchRunner.run(
+            createFiles(tempDir, new int[20]),
+            options,
+            () ->
+                transfer -> {
+                  calls.incrementAndGet();
+                  throw new BatchRunner.Unavailable("Connection refused");
+                });
+    Assertions.assertEquals(20, report.getFailures().size());
+    Assertions.assertTrue(calls.get() <= 4);
+    Assertions.assertEquals("Connection refused", report.getFailures().getLast().getError());
+  }
+
+  @Test
+  void runWorkerFailureTest(@TempDir Path tempDir) throws IOException {
+    TransferReport report =
+        BatchRunner.run(
+            createFiles(tempDir, 1, 2),
+            options,
+            () -> {
+              throw new IllegalStateException("No worker");
+            });
+    Assertions.assertEquals(2, report.getFailures().size());
+    Assertions.assertEquals("Not transferred", report.getResults().getFirst().getError());
+  }
+
+  private long write(FileTransfer transfer) throws IOException {
+    copied.add(transfer.getRemoteRoute());
+    return Files.size(Path.of(transfer.getLocalRoute()));
+  }
+
+  private List<FileTransfer> createFiles(Path dir, int... sizes) throws IOException {
+    List<FileTransfer> transfers = new ArrayList<>();
+    for (int i = 0; i < sizes.length; i++) {
+      Path file = Files.write(dir.resolve("file" + i), new byte[sizes[i]]);
+      transfers.add(new FileTransfer(file.toString(), "remote/" + i));
+    }
+    return transfers;
+  }
+}
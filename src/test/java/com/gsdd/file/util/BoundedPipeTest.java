@@ -0,0 +1,70 @@
+package com.gsdd.file.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BoundedPipeTest {
+
+  @Test
+  void transferTest() throws Exception {
+    byte[] content = new byte[100_000];
+    new Random(11).nextBytes(content);
+    BoundedPipe pipe = new BoundedPipe(1000, 2);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<?> producer =
+          executor.submit(
+              () -> {
+                try (OutputStream os = pipe.getOutput()) {
+                  for (int i = 0; i < content.length; i += 777) {
+                    os.write(content, i, Math.min(777, content.length - i));
+                  }
+                  os.write(content, 0, 0);
+                }
+                return null;
+              });
+      try (InputStream is = pipe.getInput()) {
+        Assertions.assertArrayEquals(content, is.readAllBytes());
+        Assertions.assertEquals(-1, is.read());
+      }
+      producer.get();
+    }
+  }
+
+  @Test
+  void failTest() throws Exception {
+    BoundedPipe pipe = new BoundedPipe(16, 2);
+    pipe.getOutput().write(new byte[20]);
+    pipe.fail(new IOException("Disk error"));
+    InputStream is = pipe.getInput();
+    IOException e = Assertions.assertThrows(IOException.class, is::readAllBytes);
+    Assertions.assertEquals("Disk error", e.getMessage());
+  }
+
+  @Test
+  void readerCloseReleasesWriterTest() throws Exception {
+    BoundedPipe pipe = new BoundedPipe(16, 1);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<?> producer =
+          executor.submit(
+              () -> {
+                OutputStream os = pipe.getOutput();
+                while (true) {
+                  os.write(new byte[16]);
+                }
+              });
+      InputStream is = pipe.getInput();
+      Assertions.assertEquals(16, is.read(new byte[16]));
+      is.close();
+      ExecutionException e = Assertions.assertThrows(ExecutionException.class, producer::get);
+      Assertions.assertInstanceOf(IOException.class, e.getCause());
+    }
+  }
+}
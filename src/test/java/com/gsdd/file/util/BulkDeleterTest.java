@@ -0,0 +1,49 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.FileEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkDeleterTest {
+
+  private static final String CONTENT = "test_1_.txt";
+  private static final int FILES = 50;
+
+  @Test
+  void deleteEntriesTest(@TempDir Path tempDir) throws IOException {
+    List<FileEntry> entries = new ArrayList<>(FileUtil.getFileEntries(createFiles(tempDir)));
+    entries.add(new FileEntry(tempDir.resolve("missing.txt"), 1L, 0L, true));
+    DeletionReport report = BulkDeleter.delete(entries, 8);
+    Assertions.assertEquals(FILES, report.getDeleted());
+    Assertions.assertEquals(1, report.getFailed());
+    Assertions.assertTrue(
+        report.getFailures().containsKey(tempDir.resolve("missing.txt").toString()));
+    Assertions.assertEquals((long) FILES * CONTENT.length(), report.getBytesFreed());
+    Assertions.assertNotNull(report.getElapsed());
+  }
+
+  @Test
+  void deletePredicateTest(@TempDir Path tempDir) throws IOException {
+    String route = createFiles(tempDir);
+    Files.createFile(tempDir.resolve("empty.txt"));
+    Files.createDirectory(tempDir.resolve("folder"));
+    DeletionReport report = BulkDeleter.delete(route, entry -> entry.getSize() == 0L, 4);
+    Assertions.assertEquals(1, report.getDeleted());
+    Assertions.assertEquals(0, report.getFailed());
+    Assertions.assertEquals(FILES + 1, FileUtil.getFileEntries(route).size());
+  }
+
+  private String createFiles(Path tempDir) throws IOException {
+    for (int i = 0; i < FILES; i++) {
+      Files.writeString(tempDir.resolve("file_" + i + ".txt"), CONTENT);
+    }
+    return tempDir.toString();
+  }
+}
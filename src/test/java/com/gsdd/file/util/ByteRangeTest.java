@@ -0,0 +1,39 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.TransferOptions;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ByteRangeTest {
+
+  @Test
+  void splitTest() {
+    TransferOptions options = new TransferOptions();
+    options.setSegmentSize(300);
+    options.setConcurrency(8);
+    List<ByteRange> ranges = ByteRange.split(1000, options);
+    Assertions.assertEquals(4, ranges.size());
+    Assertions.assertEquals(0L, ranges.getFirst().getPosition());
+    Assertions.assertEquals(1000L, ranges.getLast().getEnd());
+    Assertions.assertTrue(ranges.getLast().isLast());
+    for (int i = 1; i < ranges.size(); i++) {
+      Assertions.assertEquals(ranges.get(i - 1).getEnd(), ranges.get(i).getPosition());
+      Assertions.assertFalse(ranges.get(i - 1).isLast());
+    }
+    Assertions.assertEquals(1, ByteRange.split(0, options).size());
+    options.setConcurrency(0);
+    Assertions.assertEquals(1, ByteRange.split(1000, options).size());
+  }
+
+  @Test
+  void advanceTest() {
+    ByteRange range = new ByteRange(100, 250, false);
+    Assertions.assertEquals(0, range.attempt());
+    Assertions.assertEquals(1, range.attempt());
+    Assertions.assertEquals(2, range.getAttempts());
+    range.advance(50);
+    Assertions.assertEquals(150L, range.getPosition());
+    Assertions.assertEquals(100L, range.getRemaining());
+  }
+}
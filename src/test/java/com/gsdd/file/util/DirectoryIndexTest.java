@@ -0,0 +1,102 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.FileEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryIndexTest {
+
+  private static final String TXT = ".txt";
+  private static final String CONTENT = "test_1_.txt";
+  private static final long BASE_TIME = 1_600_000_000_000L;
+
+  @Test
+  void getFilesSortedByLastModificationTest(@TempDir Path tempDir) throws IOException {
+    Path dir = createFiles(tempDir, 3);
+    try (DirectoryIndex index = new DirectoryIndex(dir.toString())) {
+      List<FileEntry> entries = index.getFilesSortedByLastModification();
+      Assertions.assertEquals(
+          List.of("file_0.txt", "file_1.txt", "file_2.txt"),
+          entries.stream().map(e -> e.getPath().getFileName().toString()).toList());
+      Assertions.assertEquals(
+          "file_2.txt", index.getLastModifiedFile().getPath().getFileName().toString());
+    }
+  }
+
+  @Test
+  void deleteOldFilesTest(@TempDir Path tempDir) throws IOException {
+    Path dir = createFiles(tempDir, 4);
+    try (DirectoryIndex index = new DirectoryIndex(dir.toString())) {
+      Assertions.assertEquals(3, index.deleteOldFiles(1));
+      Assertions.assertEquals(1, index.size());
+      Assertions.assertTrue(Files.exists(dir.resolve("file_3.txt")));
+      Assertions.assertEquals(0, index.deleteOldFiles(1));
+    }
+  }
+
+  @Test
+  void deleteEmptyFilesTest(@TempDir Path tempDir) throws IOException {
+    Path dir = createFiles(tempDir, 2);
+    Files.createFile(dir.resolve("empty" + TXT));
+    Files.createDirectory(dir.resolve("folder"));
+    try (DirectoryIndex index = new DirectoryIndex(dir.toString())) {
+      Assertions.assertEquals(1, index.deleteEmptyFiles());
+      Assertions.assertEquals(3, index.size());
+    }
+  }
+
+  @Test
+  void snapshotTest(@TempDir Path tempDir) throws IOException {
+    Path dir = createFiles(tempDir, 2);
+    String snapshot = tempDir.resolve("index.snapshot").toString();
+    FileTime dirTime;
+    try (DirectoryIndex index = new DirectoryIndex(dir.toString(), snapshot)) {
+      Assertions.assertEquals(2, index.size());
+      dirTime = Files.getLastModifiedTime(dir);
+    }
+    Assertions.assertTrue(Files.exists(Path.of(snapshot)));
+    Files.writeString(dir.resolve("file_0.txt"), CONTENT.repeat(10));
+    Files.setLastModifiedTime(dir, dirTime);
+    try (DirectoryIndex index = new DirectoryIndex(dir.toString(), snapshot)) {
+      FileEntry first = index.getFilesSortedByLastModification().getFirst();
+      Assertions.assertEquals(CONTENT.length(), first.getSize());
+      index.rescan();
+      Assertions.assertEquals(
+          CONTENT.length() * 10L,
+          index.getFilesSortedByLastModification().getLast().getSize());
+    }
+  }
+
+  @Test
+  void refreshTest(@TempDir Path tempDir) throws IOException, InterruptedException {
+    Path dir = createFiles(tempDir, 1);
+    try (DirectoryIndex index = new DirectoryIndex(dir.toString())) {
+      Files.writeString(dir.resolve("new" + TXT), CONTENT);
+      Files.delete(dir.resolve("file_0.txt"));
+      long deadline = System.currentTimeMillis() + 10_000L;
+      List<FileEntry> entries = index.getFilesSortedByLastModification();
+      while (!(entries.size() == 1 && entries.getFirst().getPath().endsWith("new" + TXT))
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50L);
+        entries = index.getFilesSortedByLastModification();
+      }
+      Assertions.assertEquals(1, entries.size());
+      Assertions.assertTrue(entries.getFirst().getPath().endsWith("new" + TXT));
+    }
+  }
+
+  private Path createFiles(Path tempDir, int count) throws IOException {
+    Path dir = Files.createDirectory(tempDir.resolve("dir"));
+    for (int i = 0; i < count; i++) {
+      Path file = Files.writeString(dir.resolve("file_" + i + TXT), CONTENT);
+      Files.setLastModifiedTime(file, FileTime.fromMillis(BASE_TIME + i * 1000L));
+    }
+    return dir;
+  }
+}
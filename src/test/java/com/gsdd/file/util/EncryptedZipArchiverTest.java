@@ -0,0 +1,108 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.ArchiveOptions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import net.lingala.zip4j.ZipFile;
+import net.lingala.zip4j.exception.ZipException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class EncryptedZipArchiverTest {
+
+  private static final String TEST_ZIP = "test.zip";
+  private static final String CIPHER = "comprimido";
+  private static final String CONTENT = "test_1_.txt";
+  private static final int FILES = 5;
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void zipFilesTest(boolean storeOnly, @TempDir Path tempDir) throws IOException {
+    List<File> files = createFiles(tempDir);
+    String route = tempDir.resolve(TEST_ZIP).toString();
+    ArchiveOptions options = new ArchiveOptions();
+    options.setStoreOnly(storeOnly);
+    options.setCompressionLevel(Deflater.BEST_SPEED);
+    options.setMaxPending(2);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Assertions.assertTrue(
+          EncryptedZipArchiver.zipFiles(route, files, CIPHER, options, executor));
+    } finally {
+      executor.shutdown();
+    }
+    Path out = tempDir.resolve("out");
+    try (ZipFile zip = new ZipFile(route, CIPHER.toCharArray())) {
+      Assertions.assertTrue(zip.isEncrypted());
+      zip.extractAll(out.toString());
+    }
+    for (int i = 0; i < FILES; i++) {
+      Assertions.assertEquals(
+          CONTENT.repeat(i * 50), Files.readString(out.resolve("file_" + i + ".txt")));
+    }
+  }
+
+  @Test
+  void zipFilesManyChunksTest(@TempDir Path tempDir) throws IOException {
+    // several key stream chunks and a partial last block
+    byte[] content = new byte[2 * 65_536 + 5];
+    new Random(3).nextBytes(content);
+    Path file = Files.write(tempDir.resolve("big.bin"), content);
+    String route = tempDir.resolve(TEST_ZIP).toString();
+    ArchiveOptions options = new ArchiveOptions();
+    options.setStoreOnly(true);
+    options.setSpillThreshold(1024);
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+    try {
+      Assertions.assertTrue(
+          EncryptedZipArchiver.zipFiles(route, List.of(file.toFile()), CIPHER, options, executor));
+    } finally {
+      executor.shutdown();
+    }
+    Path out = tempDir.resolve("out");
+    try (ZipFile zip = new ZipFile(route, CIPHER.toCharArray())) {
+      zip.extractAll(out.toString());
+    }
+    Assertions.assertArrayEquals(content, Files.readAllBytes(out.resolve("big.bin")));
+  }
+
+  @Test
+  void zipFilesWrongPassTest(@TempDir Path tempDir) throws IOException {
+    List<File> files = createFiles(tempDir);
+    String route = tempDir.resolve(TEST_ZIP).toString();
+    Assertions.assertTrue(EncryptedZipArchiver.zipFiles(route, files, CIPHER));
+    String out = tempDir.resolve("out").toString();
+    try (ZipFile zip = new ZipFile(route, "wrong".toCharArray())) {
+      Assertions.assertThrows(ZipException.class, () -> zip.extractAll(out));
+    }
+  }
+
+  @Test
+  void zipFilesExcTest(@TempDir Path tempDir) {
+    String route = tempDir.resolve(TEST_ZIP).toString();
+    Assertions.assertThrows(
+        TechnicalException.class, () -> EncryptedZipArchiver.zipFiles(route, null, CIPHER));
+  }
+
+  private List<File> createFiles(Path tempDir) throws IOException {
+    List<File> files = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      Path file = tempDir.resolve("file_" + i + ".txt");
+      Files.writeString(file, CONTENT.repeat(i * 50));
+      files.add(file.toFile());
+    }
+    return files;
+  }
+}
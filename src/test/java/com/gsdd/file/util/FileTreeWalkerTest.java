@@ -0,0 +1,104 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.FileEntry;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.WalkOptions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FileTreeWalkerTest {
+
+  private static final String CONTENT = "test_1_.txt";
+  private static final long BASE_TIME = 1_600_000_000_000L;
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void walkTest(boolean parallel, @TempDir Path tempDir) throws IOException {
+    createTree(tempDir);
+    WalkOptions options = new WalkOptions();
+    options.setParallel(parallel);
+    options.setPool(new ForkJoinPool(2));
+    Assertions.assertEquals(
+        List.of("2024/01/a.log", "2024/01/b.txt", "2024/02/c.log", "root.log"),
+        names(tempDir, FileTreeWalker.walk(tempDir.toString(), options)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void walkDepthAndPatternTest(boolean parallel, @TempDir Path tempDir) throws IOException {
+    createTree(tempDir);
+    WalkOptions options = new WalkOptions();
+    options.setParallel(parallel);
+    options.setPattern("glob:**.log");
+    Assertions.assertEquals(
+        List.of("2024/01/a.log", "2024/02/c.log", "root.log"),
+        names(tempDir, FileTreeWalker.walk(tempDir.toString(), options)));
+    options.setPattern(null);
+    options.setMaxDepth(1);
+    Assertions.assertEquals(
+        List.of("root.log"), names(tempDir, FileTreeWalker.walk(tempDir.toString(), options)));
+  }
+
+  @Test
+  void walkMissingTest(@TempDir Path tempDir) {
+    Assertions.assertTrue(
+        FileTreeWalker.walk(tempDir.resolve("missing").toString(), new WalkOptions()).isEmpty());
+  }
+
+  @Test
+  void deleteEmptyFilesRecursiveTest(@TempDir Path tempDir) throws IOException {
+    createTree(tempDir);
+    Files.createFile(tempDir.resolve("2024/02/empty.log"));
+    DeletionReport report = FileUtil.deleteEmptyFiles(tempDir.toString(), new WalkOptions());
+    Assertions.assertEquals(1, report.getDeleted());
+    Assertions.assertFalse(Files.exists(tempDir.resolve("2024/02/empty.log")));
+  }
+
+  @Test
+  void deleteOldFilesRecursiveTest(@TempDir Path tempDir) throws IOException {
+    createTree(tempDir);
+    WalkOptions options = new WalkOptions();
+    options.setParallel(true);
+    DeletionReport report =
+        FileUtil.deleteOldFiles(tempDir.toString(), RetentionPolicy.keepNewest(1), options);
+    Assertions.assertEquals(3, report.getDeleted());
+    Assertions.assertTrue(Files.exists(tempDir.resolve("root.log")));
+  }
+
+  @Test
+  void getLastModifiedFileRecursiveTest(@TempDir Path tempDir) throws IOException {
+    createTree(tempDir);
+    File last = FileUtil.getLastModifiedFile(tempDir.toString(), new WalkOptions());
+    Assertions.assertEquals(tempDir.resolve("root.log").toFile(), last);
+    Assertions.assertNull(
+        FileUtil.getLastModifiedFile(tempDir.resolve("2025").toString(), new WalkOptions()));
+  }
+
+  private void createTree(Path tempDir) throws IOException {
+    String[] files = {"2024/01/a.log", "2024/01/b.txt", "2024/02/c.log", "root.log"};
+    for (int i = 0; i < files.length; i++) {
+      Path file = tempDir.resolve(files[i]);
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, CONTENT);
+      Files.setLastModifiedTime(file, FileTime.fromMillis(BASE_TIME + i * 1000L));
+    }
+  }
+
+  private List<String> names(Path root, List<FileEntry> entries) {
+    return entries.stream()
+        .map(entry -> root.relativize(entry.getPath()).toString().replace(File.separator, "/"))
+        .sorted()
+        .toList();
+  }
+}
@@ -2,6 +2,8 @@ package com.gsdd.file.util;
 
 import com.gsdd.constants.NumericConstants;
 import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileEntry;
+import com.gsdd.file.util.model.RetentionPolicy;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -10,6 +12,7 @@ import java.io.OutputStreamWriter;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -151,6 +154,45 @@ class FileUtilTest {
     Assertions.assertFalse(deleted);
   }
 
+  @Test
+  void deleteOldFilesPolicyTest(@TempDir Path tempDir) throws IOException {
+    File dir = tempDir.toFile();
+    for (int i = 0; i < 3; i++) {
+      File f = File.createTempFile(TEST_1, TXT, dir);
+      f.setLastModified(EIGHT_THOUSAND * 1000 * (i + 1));
+    }
+    new File(dir, "folder").mkdir();
+    String filePath = dir.getAbsolutePath();
+    Assertions.assertEquals(2, FileUtil.deleteOldFiles(filePath, RetentionPolicy.keepNewest(1)));
+    assertDirectoryContent(filePath, 2);
+  }
+
+  @Test
+  void deleteOldFilesPolicyExcTest(@TempDir Path tempDir) {
+    String filePath = tempDir.resolve("missing").toString();
+    RetentionPolicy policy = RetentionPolicy.keepNewest(1);
+    Assertions.assertThrows(
+        TechnicalException.class, () -> FileUtil.deleteOldFiles(filePath, policy));
+  }
+
+  @Test
+  void streamFilesTest(@TempDir Path tempDir) throws IOException {
+    String filePath = getFilePath(true, tempDir);
+    File.createTempFile(TEST_1, TXT, tempDir.toFile());
+    try (Stream<FileEntry> files = FileUtil.streamFiles(filePath)) {
+      Assertions.assertEquals(1L, files.limit(1).count());
+    }
+    try (Stream<FileEntry> files = FileUtil.streamFiles(filePath)) {
+      Assertions.assertEquals(2L, files.filter(FileEntry::isRegularFile).count());
+    }
+  }
+
+  @Test
+  void streamFilesExcTest(@TempDir Path tempDir) {
+    String filePath = tempDir.resolve("missing").toString();
+    Assertions.assertThrows(TechnicalException.class, () -> FileUtil.streamFiles(filePath));
+  }
+
   @Test
   void zipFileEmptyTest(@TempDir Path tempDir) throws IOException {
     String filePath = getFilePath(true, tempDir);
@@ -205,6 +247,25 @@ class FileUtilTest {
     Assertions.assertTrue(f.isFile());
   }
 
+  @Test
+  void unzipFileTest(@TempDir Path tempDir) throws IOException {
+    String filePath = tempDir.toFile().getAbsolutePath();
+    File f = new File(filePath + File.separator + TEST_1 + TXT);
+    writeOnFile(f);
+    String zipPath = filePath + File.separator + TEST_ZIP;
+    ZipArchiver.zipFiles(zipPath, List.of(f), 4096);
+    String outDir = filePath + File.separator + "out";
+    Assertions.assertTrue(FileUtil.unzipFile(zipPath, outDir, 4096));
+    File extracted = new File(outDir + File.separator + TEST_1 + TXT);
+    Assertions.assertTrue(extracted.isFile());
+    Assertions.assertEquals(f.length(), extracted.length());
+  }
+
+  @Test
+  void unzipFileExcTest() {
+    Assertions.assertThrows(TechnicalException.class, () -> FileUtil.unzipFile(null, null, 4096));
+  }
+
   private String getFilePath(boolean createTempFile, Path tempDir) throws IOException {
     File file = tempDir.toFile();
     if (createTempFile) {
@@ -0,0 +1,174 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.FtpPoolOptions;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class FtpBatchUploaderTest {
+
+  private final List<String> stored = Collections.synchronizedList(new ArrayList<>());
+  private final List<FTPClient> created = Collections.synchronizedList(new ArrayList<>());
+  private FtpSessionPool pool;
+  private TransferOptions options;
+
+  @BeforeEach
+  void setUp() {
+    pool = newPool(this::newClient);
+    options = new TransferOptions();
+    options.setRetryDelay(Duration.ZERO);
+  }
+
+  @Test
+  void uploadLargestFirstTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(1);
+    List<FileTransfer> transfers = createFiles(tempDir, 1, 30, 20);
+    TransferReport report = FtpBatchUploader.upload(pool, ftpFile(), transfers, options);
+    Assertions.assertEquals(3, report.getSucceeded());
+    Assertions.assertEquals(List.of("/remote/1", "/remote/2", "/remote/0"), stored);
+    Assertions.assertEquals(51L, report.getBytes());
+    Assertions.assertEquals(transfers.get(0), report.getResults().get(0).getTransfer());
+    Assertions.assertEquals(1, created.size());
+  }
+
+  @Test
+  void uploadParallelTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(4);
+    List<FileTransfer> transfers = createFiles(tempDir, new int[40]);
+    TransferReport report = FtpBatchUploader.upload(pool, ftpFile(), transfers, options);
+    Assertions.assertEquals(40, report.getSucceeded());
+    Assertions.assertTrue(report.getFailures().isEmpty());
+    Assertions.assertEquals(40, stored.size());
+    Assertions.assertTrue(created.size() <= 4);
+  }
+
+  @Test
+  void uploadRetryTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(1);
+    options.setRetries(1);
+    List<FileTransfer> transfers = createFiles(tempDir, 5);
+    FTPClient broken = newClient();
+    Mockito.doThrow(new IOException("reset"))
+        .when(broken)
+        .storeFile(Mockito.anyString(), Mockito.any(InputStream.class));
+    AtomicBoolean first = new AtomicBoolean(true);
+    FtpSessionPool brokenFirst = newPool(() -> first.getAndSet(false) ? broken : newClient());
+    TransferReport report = FtpBatchUploader.upload(brokenFirst, ftpFile(), transfers, options);
+    TransferResult result = report.getResults().getFirst();
+    Assertions.assertTrue(result.isSuccess());
+    Assertions.assertEquals(2, result.getAttempts());
+    Assertions.assertNull(result.getError());
+    Mockito.verify(broken).disconnect();
+  }
+
+  @Test
+  void uploadFailureTest(@TempDir Path tempDir) throws IOException {
+    options.setRetries(2);
+    FtpSessionPool rejecting =
+        newPool(
+            () -> {
+              FTPClient client = newClient();
+              try {
+                Mockito.doReturn(false)
+                    .when(client)
+                    .storeFile(Mockito.anyString(), Mockito.any(InputStream.class));
+              } catch (IOException e) {
+                throw new TechnicalException(e);
+              }
+              Mockito.doReturn("553 Not allowed").when(client).getReplyString();
+              return client;
+            });
+    TransferReport report =
+        FtpBatchUploader.upload(rejecting, ftpFile(), createFiles(tempDir, 5), options);
+    Assertions.assertEquals(0, report.getSucceeded());
+    TransferResult result = report.getFailures().getFirst();
+    Assertions.assertEquals(3, result.getAttempts());
+    Assertions.assertEquals("553 Not allowed", result.getError());
+    Assertions.assertEquals(0L, report.getBytes());
+  }
+
+  @Test
+  void uploadServerUnavailableTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(2);
+    options.setRetries(1);
+    AtomicInteger connects = new AtomicInteger();
+    FtpSessionPool unreachable =
+        newPool(
+            () -> {
+              connects.incrementAndGet();
+              throw new TechnicalException("Connection refused");
+            });
+    TransferReport report =
+        FtpBatchUploader.upload(unreachable, ftpFile(), createFiles(tempDir, new int[20]), options);
+    Assertions.assertEquals(20, report.getFailures().size());
+    Assertions.assertTrue(connects.get() <= 4);
+    Assertions.assertTrue(
+        report.getFailures().getLast().getError().startsWith("No session available"));
+  }
+
+  private List<FileTransfer> createFiles(Path tempDir, int... sizes) throws IOException {
+    List<FileTransfer> transfers = new ArrayList<>();
+    for (int i = 0; i < sizes.length; i++) {
+      Path file = tempDir.resolve("file_" + i);
+      Files.write(file, new byte[sizes[i]]);
+      transfers.add(new FileTransfer(file.toString(), "/remote/" + i));
+    }
+    return transfers;
+  }
+
+  private FtpSessionPool newPool(Supplier<FTPClient> clientFactory) {
+    FtpPoolOptions poolOptions = new FtpPoolOptions();
+    poolOptions.setEvictionInterval(null);
+    return new FtpSessionPool(poolOptions, clientFactory);
+  }
+
+  private FTPClient newClient() {
+    FTPClient client = Mockito.mock(FTPClient.class);
+    try {
+      Mockito.doReturn(220).when(client).getReplyCode();
+      Mockito.doReturn(true).when(client).login(Mockito.anyString(), Mockito.anyString());
+      Mockito.doReturn(true).when(client).isConnected();
+      Mockito.doReturn(true).when(client).sendNoOp();
+      Mockito.doAnswer(
+              invocation -> {
+                stored.add(invocation.getArgument(0));
+                return true;
+              })
+          .when(client)
+          .storeFile(Mockito.anyString(), Mockito.any(InputStream.class));
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+    created.add(client);
+    return client;
+  }
+
+  private UploadableFtpFile ftpFile() {
+    UploadableFtpFile ftpFile = new UploadableFtpFile();
+    ftpFile.setServer("server");
+    ftpFile.setPort(21);
+    ftpFile.setUser("user");
+    ftpFile.setPass("pass");
+    return ftpFile;
+  }
+}
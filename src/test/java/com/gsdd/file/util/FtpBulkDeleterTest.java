@@ -0,0 +1,181 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.FtpPoolOptions;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class FtpBulkDeleterTest {
+
+  private static final String DIR_TEST = "Test/";
+  private final List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+  private final List<FTPClient> created = Collections.synchronizedList(new ArrayList<>());
+  private FtpSessionPool pool;
+
+  @BeforeEach
+  void setUp() {
+    FtpPoolOptions options = new FtpPoolOptions();
+    options.setEvictionInterval(null);
+    pool = new FtpSessionPool(options, this::newClient);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  void deleteFilesTest() {
+    List<FTPFile> files = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      files.add(file("file_" + i, 10L, i));
+    }
+    DeletionReport report = FtpBulkDeleter.delete(pool, ftpFile(), DIR_TEST, files, 4);
+    Assertions.assertEquals(50, report.getDeleted());
+    Assertions.assertEquals(500L, report.getBytesFreed());
+    Assertions.assertEquals(0, report.getFailed());
+    Assertions.assertEquals(50, deleted.size());
+    Assertions.assertTrue(created.size() <= 4);
+  }
+
+  @Test
+  void deleteFailuresTest() throws IOException {
+    List<FTPFile> files =
+        List.of(file("ok", 1L, 0), file("denied", 2L, 1), file("boom", 3L, 2), file("ok2", 4L, 3));
+    DeletionReport report = FtpBulkDeleter.delete(pool, ftpFile(), DIR_TEST, files, 1);
+    Assertions.assertEquals(2, report.getDeleted());
+    Assertions.assertEquals(5L, report.getBytesFreed());
+    Assertions.assertEquals("550 Permission denied", report.getFailures().get(DIR_TEST + "denied"));
+    Assertions.assertEquals("Connection reset", report.getFailures().get(DIR_TEST + "boom"));
+    // the session that failed is replaced
+    Assertions.assertEquals(2, created.size());
+    Mockito.verify(created.getFirst()).disconnect();
+  }
+
+  @Test
+  void deleteFilterTest() {
+    DeletionReport report =
+        FtpBulkDeleter.delete(pool, ftpFile(), DIR_TEST, file -> file.getSize() == 0L, 2);
+    Assertions.assertEquals(1, report.getDeleted());
+    Assertions.assertEquals(List.of(DIR_TEST + "empty"), deleted);
+  }
+
+  @Test
+  void deleteOldFilesTest() {
+    DeletionReport report =
+        FtpBulkDeleter.deleteOldFiles(pool, ftpFile(), DIR_TEST, RetentionPolicy.keepNewest(1), 2);
+    Assertions.assertEquals(2, report.getDeleted());
+    Assertions.assertFalse(deleted.contains(DIR_TEST + "newest"));
+    Assertions.assertFalse(deleted.contains(DIR_TEST + "undated"));
+  }
+
+  @Test
+  void deleteServerUnavailableTest() {
+    AtomicInteger connects = new AtomicInteger();
+    FtpPoolOptions options = new FtpPoolOptions();
+    options.setEvictionInterval(null);
+    List<FTPFile> files = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      files.add(file("file_" + i, 1L, i));
+    }
+    DeletionReport report;
+    try (FtpSessionPool unreachable =
+        new FtpSessionPool(
+            options,
+            () -> {
+              connects.incrementAndGet();
+              throw new TechnicalException("Connection refused");
+            })) {
+      report = FtpBulkDeleter.delete(unreachable, ftpFile(), DIR_TEST, files, 2);
+    }
+    Assertions.assertEquals(0, report.getDeleted());
+    Assertions.assertEquals(20, report.getFailed());
+    Assertions.assertTrue(connects.get() <= 4);
+    Assertions.assertTrue(
+        report.getFailures().get(DIR_TEST + "file_19").startsWith("No session available"));
+  }
+
+  private FTPClient newClient() {
+    FTPClient client = Mockito.mock(FTPClient.class);
+    try {
+      Mockito.doReturn(220).when(client).getReplyCode();
+      Mockito.doReturn(true).when(client).login(Mockito.anyString(), Mockito.anyString());
+      Mockito.doReturn(true).when(client).isConnected();
+      Mockito.doReturn(true).when(client).sendNoOp();
+      Mockito.doReturn(
+              new FTPFile[] {
+                file("empty", 0L, 0),
+                file("newest", 1L, 5),
+                file("old", 1L, 1),
+                undated("undated"),
+                dir("Folder")
+              })
+          .when(client)
+          .listFiles(DIR_TEST);
+      Mockito.doReturn("550 Permission denied").when(client).getReplyString();
+      Mockito.doAnswer(
+              invocation -> {
+                String route = invocation.getArgument(0);
+                if (route.endsWith("denied")) {
+                  return false;
+                }
+                if (route.endsWith("boom")) {
+                  throw new IOException("Connection reset");
+                }
+                return deleted.add(route);
+              })
+          .when(client)
+          .deleteFile(Mockito.anyString());
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+    created.add(client);
+    return client;
+  }
+
+  private FTPFile file(String name, long size, int minutes) {
+    FTPFile file = new FTPFile();
+    file.setName(name);
+    file.setType(FTPFile.FILE_TYPE);
+    file.setSize(size);
+    Calendar timestamp = Calendar.getInstance();
+    timestamp.setTimeInMillis(minutes * 60_000L);
+    file.setTimestamp(timestamp);
+    return file;
+  }
+
+  private FTPFile undated(String name) {
+    FTPFile file = file(name, 1L, 0);
+    file.setTimestamp(null);
+    return file;
+  }
+
+  private FTPFile dir(String name) {
+    FTPFile file = file(name, 0L, 0);
+    file.setType(FTPFile.DIRECTORY_TYPE);
+    return file;
+  }
+
+  private UploadableFtpFile ftpFile() {
+    UploadableFtpFile ftpFile = new UploadableFtpFile();
+    ftpFile.setServer("server");
+    ftpFile.setPort(21);
+    ftpFile.setUser("user");
+    ftpFile.setPass("pass");
+    return ftpFile;
+  }
+}
@@ -0,0 +1,178 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.CapacityOptions;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FtpCapacityProbeTest {
+
+  private static final String DIR_TEST = "/upload";
+  private static final long GB = 1024L * 1024 * 1024;
+
+  @Mock private FTPClient ftpClient;
+  private CapacityOptions options;
+
+  @BeforeEach
+  void setUp() {
+    options = new CapacityOptions();
+  }
+
+  @Test
+  void avblTest() throws IOException {
+    Mockito.doReturn(213).when(ftpClient).sendCommand("AVBL", DIR_TEST);
+    Mockito.doReturn(new String[] {"213 1048576"}).when(ftpClient).getReplyStrings();
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(1048576L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    Assertions.assertEquals(1048576L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    Mockito.verify(ftpClient).sendCommand("AVBL", DIR_TEST);
+    Assertions.assertTrue(
+        FtpUtil.checkAvailableSpaceOnDir(probe, ftpFile(), ftpClient, DIR_TEST, 1024L));
+    Assertions.assertFalse(
+        FtpUtil.checkAvailableSpaceOnDir(probe, ftpFile(), ftpClient, DIR_TEST, GB));
+  }
+
+  @Test
+  void siteCommandTest() throws IOException {
+    Mockito.doReturn(502).when(ftpClient).sendCommand("AVBL", DIR_TEST);
+    Mockito.doReturn(500).when(ftpClient).sendCommand("SITE", "AVBL " + DIR_TEST);
+    Mockito.doReturn(200).when(ftpClient).sendCommand("SITE", "FREE " + DIR_TEST);
+    Mockito.doReturn(new String[] {"200 Free space: 2.5 GB"}).when(ftpClient).getReplyStrings();
+    options.setTtl(Duration.ZERO);
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(
+        (long) (2.5 * GB), probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST);
+    // the working command is remembered for the server
+    Mockito.verify(ftpClient).sendCommand("AVBL", DIR_TEST);
+    Mockito.verify(ftpClient, Mockito.times(2)).sendCommand("SITE", "FREE " + DIR_TEST);
+  }
+
+  @Test
+  void statTest() throws IOException {
+    Mockito.doReturn("211-Status of /upload\n Disk free: 10 GB\n211 End of status")
+        .when(ftpClient)
+        .getStatus(DIR_TEST);
+    options.setTtl(Duration.ZERO);
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(10 * GB, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    Assertions.assertEquals(10 * GB, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    Mockito.verify(ftpClient, Mockito.times(3)).sendCommand(Mockito.anyString(), Mockito.any());
+  }
+
+  @Test
+  void fallbackTest() throws IOException {
+    options.setUseStat(false);
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(-1L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    Assertions.assertFalse(
+        FtpUtil.checkAvailableSpaceOnDir(probe, ftpFile(), ftpClient, DIR_TEST, 0L));
+    options.setFallbackEstimate(GB);
+    probe.clear();
+    Assertions.assertEquals(GB, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    Mockito.verify(ftpClient, Mockito.never()).getStatus(Mockito.anyString());
+  }
+
+  @Test
+  void fallbackRetriedAfterTtlTest() throws IOException {
+    options.setUseStat(false);
+    options.setTtl(Duration.ZERO);
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(-1L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    // the server starts answering AVBL, no method is remembered so it's found
+    Mockito.doReturn(213).when(ftpClient).sendCommand("AVBL", DIR_TEST);
+    Mockito.doReturn(new String[] {"213 1048576"}).when(ftpClient).getReplyStrings();
+    Assertions.assertEquals(1048576L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+  }
+
+  @Test
+  void statListingTest() throws IOException {
+    Mockito.doReturn(
+            """
+            211-Status of /upload
+            -rw-r--r--   1 ftp ftp   10 Jan 01  2024 freeze_2024.log
+            -rw-r--r--   1 ftp ftp   10 Jan 01  2024 free 300.log
+            01-15-24  10:00AM       100 available 5.txt
+            type=file;size=10; free 7
+            211 End of status""")
+        .when(ftpClient)
+        .getStatus(DIR_TEST);
+    options.setTtl(Duration.ZERO);
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(-1L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    Assertions.assertEquals(-1L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    // a listing is not remembered as a way to get the free space, the next probe tries again
+    Mockito.verify(ftpClient, Mockito.times(2)).getStatus(DIR_TEST);
+  }
+
+  @Test
+  void avblListingTest() throws IOException {
+    Mockito.doReturn(213).when(ftpClient).sendCommand("AVBL", DIR_TEST);
+    Mockito.doReturn(new String[] {"213-Listing", " 2024 freeze_2024.log", "213 End"})
+        .when(ftpClient)
+        .getReplyStrings();
+    options.setCommands(List.of("AVBL"));
+    options.setUseStat(false);
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(-1L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+  }
+
+  @Test
+  void siteFormatTest() throws IOException {
+    Mockito.doReturn(200).when(ftpClient).sendCommand("SITE", "QUOTA " + DIR_TEST);
+    Mockito.doReturn(new String[] {"200-Used 3 of 4", "200 remaining=4096"})
+        .when(ftpClient)
+        .getReplyStrings();
+    options.setCommands(List.of("SITE DF", "SITE QUOTA"));
+    options.setReplyFormats(Map.of("SITE QUOTA", "remaining=(\\d+)"));
+    options.setUseStat(false);
+    FtpCapacityProbe probe = new FtpCapacityProbe(options);
+    Assertions.assertEquals(4096L, probe.getAvailableSpace(ftpFile(), ftpClient, DIR_TEST));
+    // commands without a reply format are not sent
+    Mockito.verify(ftpClient, Mockito.never()).sendCommand("SITE", "DF " + DIR_TEST);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"213 1234,1234", "213 1K,-1", "'213 Used 3 of 4',-1", "200 1234,-1"})
+  void parseAvblTest(String line, long bytes) {
+    Assertions.assertEquals(bytes, FtpCapacityProbe.parseAvbl(line));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "'Total 100 GB, available 1 GB',1073741824",
+    "'free=512',512",
+    "'Free space: 2 mb',2097152",
+    "'1234 bytes free',1234",
+    "'211-1234 bytes free',1234",
+    "'10 GB available',10737418240",
+    "'free 100 percent',-1",
+    "'100 percent free',-1",
+    "'10 files',-1",
+    "'freeze_2024.log',-1"
+  })
+  void parseStatTest(String text, long bytes) {
+    Assertions.assertEquals(bytes, FtpCapacityProbe.parseStat(text));
+  }
+
+  private UploadableFtpFile ftpFile() {
+    UploadableFtpFile ftpFile = new UploadableFtpFile();
+    ftpFile.setServer("server");
+    ftpFile.setPort(21);
+    ftpFile.setUser("user");
+    return ftpFile;
+  }
+}
@@ -0,0 +1,148 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Calendar;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FtpListingCacheTest {
+
+  private static final String DIR_TEST = "Test/";
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  @Mock private FTPClient ftpClient;
+
+  @Test
+  void listWithMlsdTest() throws IOException {
+    Mockito.doReturn(true).when(ftpClient).hasFeature("MLST");
+    Mockito.doReturn(listing()).when(ftpClient).mlistDir(DIR_TEST);
+    FtpListingCache cache = new FtpListingCache(ftpClient, TTL);
+    Assertions.assertEquals(3, cache.list(DIR_TEST).length);
+    Assertions.assertEquals(3, cache.list("Test").length);
+    Mockito.verify(ftpClient).mlistDir(DIR_TEST);
+    Mockito.verify(ftpClient).hasFeature("MLST");
+    Mockito.verify(ftpClient, Mockito.never()).listFiles(Mockito.anyString());
+  }
+
+  @Test
+  void listWithoutMlsdTest() throws IOException {
+    Mockito.doReturn(false).when(ftpClient).hasFeature("MLST");
+    Mockito.doReturn(listing()).when(ftpClient).listFiles(DIR_TEST);
+    FtpListingCache cache = new FtpListingCache(ftpClient, TTL);
+    Assertions.assertEquals(3, cache.list(DIR_TEST).length);
+    Mockito.verify(ftpClient, Mockito.never()).mlistDir(Mockito.anyString());
+  }
+
+  @Test
+  void listExpiredTest() throws IOException {
+    Mockito.doReturn(false).when(ftpClient).hasFeature("MLST");
+    Mockito.doReturn(listing()).when(ftpClient).listFiles(DIR_TEST);
+    FtpListingCache cache = new FtpListingCache(ftpClient, Duration.ZERO);
+    cache.list(DIR_TEST);
+    cache.list(DIR_TEST);
+    Mockito.verify(ftpClient, Mockito.times(2)).listFiles(DIR_TEST);
+  }
+
+  @Test
+  void storeAndDeleteInvalidateTest() throws IOException {
+    Mockito.doReturn(false).when(ftpClient).hasFeature("MLST");
+    Mockito.doReturn(listing()).when(ftpClient).listFiles(Mockito.anyString());
+    Mockito.doReturn(true).when(ftpClient).deleteFile(DIR_TEST + "a.txt");
+    Mockito.doReturn(true)
+        .when(ftpClient)
+        .storeFile(Mockito.eq(DIR_TEST + "b.txt"), Mockito.any(ByteArrayInputStream.class));
+    FtpListingCache cache = new FtpListingCache(ftpClient, TTL);
+    cache.list(DIR_TEST);
+    cache.list("Other");
+    Assertions.assertTrue(cache.deleteFile(DIR_TEST + "a.txt"));
+    cache.list(DIR_TEST);
+    Assertions.assertTrue(
+        cache.storeFile(DIR_TEST + "b.txt", new ByteArrayInputStream(new byte[0])));
+    cache.list(DIR_TEST);
+    cache.list("Other");
+    Mockito.verify(ftpClient, Mockito.times(3)).listFiles(DIR_TEST);
+    Mockito.verify(ftpClient).listFiles("Other");
+  }
+
+  @Test
+  void housekeepingReusesListingTest() throws IOException {
+    Mockito.doReturn(false).when(ftpClient).hasFeature("MLST");
+    Mockito.doReturn(listing()).when(ftpClient).listFiles(DIR_TEST);
+    FtpListingCache cache = new FtpListingCache(ftpClient, TTL);
+    Assertions.assertEquals(2, FtpUtil.getFilesSortedByLastModification(cache, DIR_TEST).size());
+    Assertions.assertFalse(FtpUtil.deleteOldFiles(cache, DIR_TEST, 2));
+    FtpUtil.deleteEmptyFiles(cache, DIR_TEST);
+    Mockito.verify(ftpClient).listFiles(DIR_TEST);
+    Mockito.verify(ftpClient, Mockito.never()).deleteFile(Mockito.anyString());
+  }
+
+  @Test
+  void checkDirectoryTest() throws IOException {
+    Mockito.doReturn(false).when(ftpClient).hasFeature("MLST");
+    Mockito.doReturn(listing()).when(ftpClient).listFiles(".");
+    Mockito.doReturn(true).when(ftpClient).makeDirectory("New");
+    FtpListingCache cache = new FtpListingCache(ftpClient, TTL);
+    Assertions.assertTrue(FtpUtil.checkDirectory(null, cache, "Folder/"));
+    Assertions.assertTrue(cache.isDirectory("Folder"));
+    Assertions.assertFalse(cache.isDirectory("a.txt"));
+    Mockito.verify(ftpClient).listFiles(".");
+    Mockito.verify(ftpClient, Mockito.never()).makeDirectory(Mockito.anyString());
+    Assertions.assertTrue(FtpUtil.checkDirectory(new UploadableFtpFile(), cache, "New"));
+    Mockito.verify(ftpClient).makeDirectory("New");
+  }
+
+  @Test
+  void relativeRouteInvalidateTest() throws IOException {
+    Mockito.doReturn(false).when(ftpClient).hasFeature("MLST");
+    Mockito.doReturn(listing()).when(ftpClient).listFiles(Mockito.anyString());
+    FtpListingCache cache = new FtpListingCache(ftpClient, TTL);
+    Assertions.assertEquals(3, cache.list(".").length);
+    Assertions.assertEquals(3, cache.list("").length);
+    Mockito.verify(ftpClient).listFiles(".");
+    Mockito.verify(ftpClient, Mockito.never()).listFiles("");
+    cache.storeFile("c.txt", new ByteArrayInputStream(new byte[0]));
+    cache.list(".");
+    Mockito.verify(ftpClient, Mockito.times(2)).listFiles(".");
+    cache.deleteFile("./a.txt");
+    cache.list(".");
+    Mockito.verify(ftpClient, Mockito.times(3)).listFiles(".");
+  }
+
+  @ParameterizedTest
+  @CsvSource({"Test/,.", "Test/a.txt,Test", "/a.txt,/", "/dir/sub/,/dir", "a.txt,.", "./a.txt,."})
+  void parentTest(String route, String parent) {
+    Assertions.assertEquals(parent, FtpListingCache.parent(route));
+  }
+
+  private FTPFile[] listing() {
+    return new FTPFile[] {
+      file(".", FTPFile.DIRECTORY_TYPE, 0L),
+      file("..", FTPFile.DIRECTORY_TYPE, 0L),
+      file("a.txt", FTPFile.FILE_TYPE, 1L),
+      file("b.txt", FTPFile.FILE_TYPE, 2L),
+      file("Folder", FTPFile.DIRECTORY_TYPE, 0L),
+      null
+    };
+  }
+
+  private FTPFile file(String name, int type, long size) {
+    FTPFile file = new FTPFile();
+    file.setName(name);
+    file.setType(type);
+    file.setSize(size);
+    file.setTimestamp(Calendar.getInstance());
+    return file;
+  }
+}
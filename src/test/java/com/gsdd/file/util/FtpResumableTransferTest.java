@@ -0,0 +1,214 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.FtpPoolOptions;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class FtpResumableTransferTest {
+
+  private static final String REMOTE = "/remote/big.bin";
+  private final ByteArrayOutputStream remote = new ByteArrayOutputStream();
+  private final AtomicBoolean failOnce = new AtomicBoolean();
+  private byte[] content;
+  private TransferOptions options;
+
+  @TempDir private Path tempDir;
+
+  @BeforeEach
+  void setUp() {
+    content = new byte[100];
+    new Random(3).nextBytes(content);
+    options = new TransferOptions();
+    options.setBufferSize(4);
+    options.setCheckpointInterval(4);
+    options.setRetryDelay(Duration.ZERO);
+  }
+
+  @Test
+  void uploadResumeTest() throws IOException {
+    FileTransfer transfer = new FileTransfer(writeLocal().toString(), REMOTE);
+    TransferJournal journal = journal();
+    FTPClient client = newClient();
+    failOnce.set(true);
+    Assertions.assertThrows(
+        TechnicalException.class,
+        () -> FtpResumableTransfer.upload(client, transfer, journal, options));
+    Assertions.assertTrue(journal.getOffset(key("upload:", transfer), tag(transfer)) > 0);
+    Assertions.assertTrue(FtpResumableTransfer.upload(client, transfer, journal, options));
+    Mockito.verify(client).appendFileStream(REMOTE);
+    Assertions.assertArrayEquals(content, remote.toByteArray());
+    Assertions.assertEquals(-1L, journal.getOffset(key("upload:", transfer), tag(transfer)));
+  }
+
+  @Test
+  void uploadChangedSourceRestartsTest() throws IOException {
+    Path local = writeLocal();
+    FileTransfer transfer = new FileTransfer(local.toString(), REMOTE);
+    TransferJournal journal = journal();
+    FTPClient client = newClient();
+    failOnce.set(true);
+    Assertions.assertThrows(
+        TechnicalException.class,
+        () -> FtpResumableTransfer.upload(client, transfer, journal, options));
+    Files.setLastModifiedTime(local, FileTime.fromMillis(0L));
+    remote.reset();
+    Assertions.assertTrue(FtpResumableTransfer.upload(client, transfer, journal, options));
+    Mockito.verify(client, Mockito.never()).appendFileStream(REMOTE);
+    Assertions.assertArrayEquals(content, remote.toByteArray());
+  }
+
+  @Test
+  void uploadRetryWithPoolTest() throws IOException {
+    FileTransfer transfer = new FileTransfer(writeLocal().toString(), REMOTE);
+    failOnce.set(true);
+    FtpPoolOptions poolOptions = new FtpPoolOptions();
+    poolOptions.setEvictionInterval(null);
+    try (FtpSessionPool pool = new FtpSessionPool(poolOptions, this::newClient)) {
+      TransferResult result =
+          FtpResumableTransfer.upload(pool, ftpFile(), transfer, journal(), options);
+      Assertions.assertTrue(result.isSuccess());
+      Assertions.assertEquals(2, result.getAttempts());
+      Assertions.assertEquals(content.length, result.getBytes());
+    }
+    Assertions.assertArrayEquals(content, remote.toByteArray());
+  }
+
+  @Test
+  void downloadResumeTest() throws IOException {
+    Path local = tempDir.resolve("download.bin");
+    FileTransfer transfer = new FileTransfer(local.toString(), REMOTE);
+    TransferJournal journal = journal();
+    FTPClient client = newClient();
+    failOnce.set(true);
+    Assertions.assertThrows(
+        TechnicalException.class,
+        () -> FtpResumableTransfer.download(client, transfer, journal, options));
+    Assertions.assertEquals(10L, Files.size(local));
+    // a new process loads the checkpoint from disk
+    TransferJournal reloaded = journal();
+    Assertions.assertTrue(FtpResumableTransfer.download(client, transfer, reloaded, options));
+    Mockito.verify(client).setRestartOffset(8L);
+    Assertions.assertArrayEquals(content, Files.readAllBytes(local));
+  }
+
+  @Test
+  void journalTest() {
+    TransferJournal journal = journal();
+    Assertions.assertEquals(-1L, journal.getOffset("key", "v1"));
+    journal.checkpoint("key", "v1", 42L);
+    Assertions.assertEquals(42L, journal().getOffset("key", "v1"));
+    Assertions.assertEquals(-1L, journal().getOffset("key", "v2"));
+    journal.complete("key");
+    Assertions.assertEquals(-1L, journal().getOffset("key", "v1"));
+  }
+
+  private Path writeLocal() throws IOException {
+    return Files.write(tempDir.resolve("big.bin"), content);
+  }
+
+  private TransferJournal journal() {
+    return new TransferJournal(tempDir.resolve("journal.properties").toString());
+  }
+
+  private String key(String direction, FileTransfer transfer) {
+    return direction + transfer.getLocalRoute() + ">" + transfer.getRemoteRoute();
+  }
+
+  private String tag(FileTransfer transfer) throws IOException {
+    Path local = Path.of(transfer.getLocalRoute());
+    return Files.size(local) + "@" + Files.getLastModifiedTime(local).toMillis();
+  }
+
+  private FTPClient newClient() {
+    FTPClient client = Mockito.mock(FTPClient.class);
+    long[] offset = {0L};
+    try {
+      Mockito.doReturn(220).when(client).getReplyCode();
+      Mockito.doReturn(true).when(client).login(Mockito.anyString(), Mockito.anyString());
+      Mockito.doReturn(true).when(client).isConnected();
+      Mockito.doReturn(true).when(client).sendNoOp();
+      Mockito.doReturn(true).when(client).completePendingCommand();
+      Mockito.doReturn("20260101000000").when(client).getModificationTime(REMOTE);
+      Mockito.doAnswer(invocation -> String.valueOf(remote.size())).when(client).getSize(REMOTE);
+      Mockito.doAnswer(invocation -> target(false)).when(client).storeFileStream(REMOTE);
+      Mockito.doAnswer(invocation -> target(true)).when(client).appendFileStream(REMOTE);
+      Mockito.doAnswer(invocation -> offset[0] = invocation.getArgument(0))
+          .when(client)
+          .setRestartOffset(Mockito.anyLong());
+      Mockito.doAnswer(invocation -> source((int) offset[0]))
+          .when(client)
+          .retrieveFileStream(REMOTE);
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+    return client;
+  }
+
+  /** Remote file, breaking after 10 bytes when asked to fail. */
+  private OutputStream target(boolean append) {
+    if (!append) {
+      remote.reset();
+    }
+    if (!failOnce.get()) {
+      return remote;
+    }
+    return new OutputStream() {
+
+      @Override
+      public void write(int b) throws IOException {
+        if (remote.size() >= 10 && failOnce.getAndSet(false)) {
+          throw new IOException("Connection reset");
+        }
+        remote.write(b);
+      }
+    };
+  }
+
+  private InputStream source(int from) {
+    InputStream rest = new ByteArrayInputStream(content, from, content.length - from);
+    if (!failOnce.getAndSet(false)) {
+      return rest;
+    }
+    InputStream broken =
+        new InputStream() {
+
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Connection reset");
+          }
+        };
+    return new SequenceInputStream(
+        new ByteArrayInputStream(Arrays.copyOfRange(content, from, from + 10)), broken);
+  }
+
+  private UploadableFtpFile ftpFile() {
+    UploadableFtpFile ftpFile = new UploadableFtpFile();
+    ftpFile.setServer("server");
+    ftpFile.setPort(21);
+    ftpFile.setUser("user");
+    ftpFile.setPass("pass");
+    return ftpFile;
+  }
+}
@@ -0,0 +1,197 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.FtpPoolOptions;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class FtpSegmentedDownloaderTest {
+
+  private static final String REMOTE = "/remote/big.bin";
+  private final List<FTPClient> created = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicBoolean failOnce = new AtomicBoolean();
+  private byte[] content;
+  private boolean reportSize;
+  private boolean failProbe;
+  private TransferOptions options;
+
+  @BeforeEach
+  void setUp() {
+    content = new byte[1000];
+    new Random(7).nextBytes(content);
+    reportSize = true;
+    options = new TransferOptions();
+    options.setSegmentSize(100);
+    options.setBufferSize(64);
+    options.setConcurrency(4);
+    options.setRetryDelay(Duration.ZERO);
+  }
+
+  @Test
+  void downloadSegmentsTest(@TempDir Path tempDir) throws IOException {
+    Path local = tempDir.resolve("big.bin");
+    try (FtpSessionPool pool = newPool()) {
+      TransferResult result =
+          FtpSegmentedDownloader.download(
+              pool, ftpFile(), new FileTransfer(local.toString(), REMOTE), options);
+      Assertions.assertTrue(result.isSuccess());
+      Assertions.assertEquals(content.length, result.getBytes());
+      // ranges cut before the end of the file are not reused
+      Assertions.assertEquals(4, created.size());
+      Assertions.assertEquals(1, pool.getIdleCount(ftpFile()));
+    }
+    Assertions.assertArrayEquals(content, Files.readAllBytes(local));
+  }
+
+  @Test
+  void downloadRetryFromPositionTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(1);
+    failOnce.set(true);
+    Path local = tempDir.resolve("big.bin");
+    TransferResult result = download(local);
+    Assertions.assertTrue(result.isSuccess());
+    Assertions.assertEquals(2, result.getAttempts());
+    Assertions.assertArrayEquals(content, Files.readAllBytes(local));
+    FTPClient retried = created.getLast();
+    Mockito.verify(retried).setRestartOffset(10L);
+  }
+
+  @Test
+  void downloadUnknownSizeTest(@TempDir Path tempDir) throws IOException {
+    reportSize = false;
+    Path local = tempDir.resolve("big.bin");
+    TransferResult result = download(local);
+    Assertions.assertTrue(result.isSuccess());
+    Assertions.assertArrayEquals(content, Files.readAllBytes(local));
+    Mockito.verify(created.getFirst(), Mockito.never()).retrieveFileStream(REMOTE);
+  }
+
+  @Test
+  void downloadFailureKeepsFileTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(1);
+    options.setRetries(0);
+    failOnce.set(true);
+    Path local = Files.write(tempDir.resolve("big.bin"), new byte[] {1, 2, 3});
+    TransferResult result = download(local);
+    Assertions.assertFalse(result.isSuccess());
+    Assertions.assertEquals("Connection reset", result.getError());
+    Assertions.assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(local));
+    try (Stream<Path> files = Files.list(tempDir)) {
+      Assertions.assertEquals(1L, files.count());
+    }
+  }
+
+  @Test
+  void downloadProbeFailureTest(@TempDir Path tempDir) throws IOException {
+    failProbe = true;
+    Path local = tempDir.resolve("big.bin");
+    try (FtpSessionPool pool = newPool()) {
+      FileTransfer transfer = new FileTransfer(local.toString(), REMOTE);
+      Assertions.assertThrows(
+          TechnicalException.class,
+          () -> FtpSegmentedDownloader.download(pool, ftpFile(), transfer, options));
+      Assertions.assertEquals(0, pool.getIdleCount(ftpFile()));
+    }
+    Mockito.verify(created.getFirst()).disconnect();
+    Assertions.assertFalse(Files.exists(local));
+  }
+
+  private TransferResult download(Path local) {
+    try (FtpSessionPool pool = newPool()) {
+      return FtpSegmentedDownloader.download(
+          pool, ftpFile(), new FileTransfer(local.toString(), REMOTE), options);
+    }
+  }
+
+  private FtpSessionPool newPool() {
+    FtpPoolOptions poolOptions = new FtpPoolOptions();
+    poolOptions.setEvictionInterval(null);
+    return new FtpSessionPool(poolOptions, this::newClient);
+  }
+
+  private FTPClient newClient() {
+    FTPClient client = Mockito.mock(FTPClient.class);
+    AtomicLong offset = new AtomicLong();
+    try {
+      Mockito.doReturn(220).when(client).getReplyCode();
+      Mockito.doReturn(true).when(client).login(Mockito.anyString(), Mockito.anyString());
+      Mockito.doReturn(true).when(client).isConnected();
+      Mockito.doReturn(true).when(client).sendNoOp();
+      Mockito.doReturn(true).when(client).completePendingCommand();
+      if (failProbe) {
+        Mockito.doThrow(new IOException("Connection reset")).when(client).getSize(REMOTE);
+      } else {
+        Mockito.doReturn(reportSize ? String.valueOf(content.length) : null)
+            .when(client)
+            .getSize(REMOTE);
+      }
+      Mockito.doAnswer(invocation -> offset.getAndSet(invocation.getArgument(0)))
+          .when(client)
+          .setRestartOffset(Mockito.anyLong());
+      Mockito.doAnswer(invocation -> stream((int) offset.getAndSet(0)))
+          .when(client)
+          .retrieveFileStream(REMOTE);
+      Mockito.doAnswer(
+              invocation -> {
+                invocation.<OutputStream>getArgument(1).write(content);
+                return true;
+              })
+          .when(client)
+          .retrieveFile(Mockito.eq(REMOTE), Mockito.any(OutputStream.class));
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+    created.add(client);
+    return client;
+  }
+
+  private InputStream stream(int from) {
+    InputStream rest = new ByteArrayInputStream(content, from, content.length - from);
+    if (!failOnce.getAndSet(false)) {
+      return rest;
+    }
+    InputStream broken =
+        new InputStream() {
+
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Connection reset");
+          }
+        };
+    return new SequenceInputStream(
+        new ByteArrayInputStream(Arrays.copyOfRange(content, from, from + 10)), broken);
+  }
+
+  private UploadableFtpFile ftpFile() {
+    UploadableFtpFile ftpFile = new UploadableFtpFile();
+    ftpFile.setServer("server");
+    ftpFile.setPort(21);
+    ftpFile.setUser("user");
+    ftpFile.setPass("pass");
+    return ftpFile;
+  }
+}
@@ -0,0 +1,193 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.FtpPoolOptions;
+import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class FtpSessionPoolTest {
+
+  private final List<FTPClient> created = new ArrayList<>();
+  private FtpPoolOptions options;
+
+  @BeforeEach
+  void setUp() {
+    options = new FtpPoolOptions();
+    options.setEvictionInterval(null);
+    options.setLeaseTimeout(Duration.ofMillis(50));
+  }
+
+  @Test
+  void borrowReusesIdleSessionTest() throws IOException {
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true))) {
+      FTPClient first;
+      try (FtpSession session = pool.borrow(ftpFile("server", "user"))) {
+        first = session.getClient();
+      }
+      Assertions.assertEquals(1, pool.getIdleCount(ftpFile("server", "user")));
+      try (FtpSession session = pool.borrow(ftpFile("server", "user"))) {
+        Assertions.assertSame(first, session.getClient());
+      }
+      Assertions.assertEquals(1, created.size());
+      Mockito.verify(first).sendNoOp();
+      Mockito.verify(first).login("user", "pass");
+    }
+  }
+
+  @Test
+  void borrowKeysByServerAndUserTest() {
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true))) {
+      try (FtpSession a = pool.borrow(ftpFile("server", "user"));
+          FtpSession b = pool.borrow(ftpFile("server", "other"));
+          FtpSession c = pool.borrow(ftpFile("other", "user"))) {
+        Assertions.assertNotSame(a.getClient(), b.getClient());
+        Assertions.assertNotSame(a.getClient(), c.getClient());
+      }
+      Assertions.assertEquals(3, created.size());
+    }
+  }
+
+  @Test
+  void borrowReplacesDeadSessionTest() throws IOException {
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(false))) {
+      FTPClient first;
+      try (FtpSession session = pool.borrow(ftpFile("server", "user"))) {
+        first = session.getClient();
+      }
+      try (FtpSession session = pool.borrow(ftpFile("server", "user"))) {
+        Assertions.assertNotSame(first, session.getClient());
+      }
+      Mockito.verify(first).disconnect();
+    }
+  }
+
+  @Test
+  void invalidatedSessionIsNotReusedTest() throws IOException {
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true))) {
+      FtpSession session = pool.borrow(ftpFile("server", "user"));
+      session.invalidate();
+      session.close();
+      Assertions.assertEquals(0, pool.getIdleCount(ftpFile("server", "user")));
+      Mockito.verify(session.getClient()).disconnect();
+    }
+  }
+
+  @Test
+  void leaseTimeoutTest() {
+    options.setMaxTotal(1);
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true));
+        FtpSession session = pool.borrow(ftpFile("server", "user"))) {
+      Assertions.assertNotNull(session.getClient());
+      Assertions.assertThrows(
+          TechnicalException.class, () -> pool.borrow(ftpFile("server", "user")));
+    }
+  }
+
+  @Test
+  void loginFailureReleasesPermitTest() throws IOException {
+    options.setMaxTotal(1);
+    try (FtpSessionPool pool =
+        new FtpSessionPool(
+            options,
+            () -> {
+              FTPClient client = newClient(true);
+              Mockito.doReturn(500).when(client).getReplyCode();
+              return client;
+            })) {
+      Assertions.assertThrows(
+          TechnicalException.class, () -> pool.borrow(ftpFile("server", "user")));
+      Assertions.assertThrows(
+          TechnicalException.class, () -> pool.borrow(ftpFile("server", "user")));
+      Assertions.assertEquals(2, created.size());
+    }
+  }
+
+  @Test
+  void evictIdleTest() throws IOException {
+    options.setIdleTimeout(Duration.ZERO);
+    options.setMinIdle(1);
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true))) {
+      FtpSession a = pool.borrow(ftpFile("server", "user"));
+      FtpSession b = pool.borrow(ftpFile("server", "user"));
+      a.close();
+      b.close();
+      Assertions.assertEquals(2, pool.getIdleCount(ftpFile("server", "user")));
+      pool.evictIdle();
+      Assertions.assertEquals(1, pool.getIdleCount(ftpFile("server", "user")));
+      Mockito.verify(a.getClient()).disconnect();
+      Mockito.verify(b.getClient(), Mockito.never()).disconnect();
+    }
+  }
+
+  @Test
+  void minIdleWithinMaxTotalTest() {
+    options.setMinIdle(2);
+    options.setMaxTotal(2);
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true))) {
+      UploadableFtpFile ftpFile = ftpFile("server", "user");
+      try (FtpSession session = pool.borrow(ftpFile)) {
+        pool.evictIdle();
+        Assertions.assertEquals(1, pool.getIdleCount(ftpFile));
+        Assertions.assertNotNull(session.getClient());
+      }
+      pool.evictIdle();
+      Assertions.assertEquals(2, pool.getIdleCount(ftpFile));
+      Assertions.assertEquals(2, created.size());
+    }
+  }
+
+  @Test
+  void destroyAfterLogoutFailureTest() throws IOException {
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true))) {
+      FtpSession session = pool.borrow(ftpFile("server", "user"));
+      Mockito.doThrow(new IOException("Connection reset")).when(session.getClient()).logout();
+      session.invalidate();
+      session.close();
+      Mockito.verify(session.getClient()).disconnect();
+    }
+  }
+
+  @Test
+  void maxIdleTest() throws IOException {
+    options.setMaxIdle(1);
+    try (FtpSessionPool pool = new FtpSessionPool(options, () -> newClient(true))) {
+      FtpSession a = pool.borrow(ftpFile("server", "user"));
+      FtpSession b = pool.borrow(ftpFile("server", "user"));
+      a.close();
+      b.close();
+      Assertions.assertEquals(1, pool.getIdleCount(ftpFile("server", "user")));
+      Mockito.verify(b.getClient()).disconnect();
+    }
+  }
+
+  private FTPClient newClient(boolean alive) {
+    FTPClient client = Mockito.mock(FTPClient.class);
+    try {
+      Mockito.doReturn(220).when(client).getReplyCode();
+      Mockito.doReturn(true).when(client).login(Mockito.anyString(), Mockito.anyString());
+      Mockito.doReturn(true).when(client).isConnected();
+      Mockito.doReturn(alive).when(client).sendNoOp();
+    } catch (IOException e) {
+      throw new TechnicalException(e);
+    }
+    created.add(client);
+    return client;
+  }
+
+  private UploadableFtpFile ftpFile(String server, String user) {
+    UploadableFtpFile ftpFile = new UploadableFtpFile();
+    ftpFile.setServer(server);
+    ftpFile.setPort(21);
+    ftpFile.setUser(user);
+    ftpFile.setPass("pass");
+    return ftpFile;
+  }
+}
@@ -2,21 +2,38 @@ package com.gsdd.file.util;
 
 import com.gsdd.constants.FileConstants;
 import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.CompressionFormat;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.TransferOptions;
 import com.gsdd.file.util.model.UploadableFtpFile;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPListParseEngine;
+import org.apache.commons.net.io.CopyStreamListener;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.Logger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
@@ -149,6 +166,251 @@ class FtpUtilTest {
     Mockito.verify(ftpClient, Mockito.never()).deleteFile(Mockito.anyString());
   }
 
+  @Test
+  public void deleteOldFilesPolicyTest(@Mock FTPListParseEngine engine) throws IOException {
+    Mockito.doReturn(engine).when(ftpClient).initiateListParsing(DIR_TEST);
+    Mockito.when(engine.hasNext()).thenReturn(true, false);
+    Mockito.doReturn(arrangeFTPFile(true)).when(engine).getNext(Mockito.anyInt());
+    Mockito.doReturn(true).when(ftpClient).deleteFile(Mockito.anyString());
+    Assertions.assertEquals(
+        2, FtpUtil.deleteOldFiles(ftpClient, DIR_TEST, RetentionPolicy.keepNewest(1)));
+    Mockito.verify(ftpClient, Mockito.never()).listFiles(Mockito.anyString());
+    Mockito.verify(ftpClient, Mockito.times(2)).deleteFile(Mockito.anyString());
+  }
+
+  @Test
+  public void deleteOldFilesPolicyUndatedTest(@Mock FTPListParseEngine engine)
+      throws IOException {
+    FTPFile[] files = arrangeFTPFile(true);
+    files[0].setTimestamp(null);
+    Mockito.doReturn(engine).when(ftpClient).initiateListParsing(DIR_TEST);
+    Mockito.when(engine.hasNext()).thenReturn(true, false);
+    Mockito.doReturn(files).when(engine).getNext(Mockito.anyInt());
+    Mockito.doReturn(true).when(ftpClient).deleteFile(Mockito.anyString());
+    Assertions.assertEquals(
+        1, FtpUtil.deleteOldFiles(ftpClient, DIR_TEST, RetentionPolicy.keepNewest(1)));
+    Mockito.verify(ftpClient, Mockito.never()).deleteFile(DIR_TEST + "File 0.txt");
+  }
+
+  @Test
+  public void streamFilesTest(@Mock FTPListParseEngine engine) throws IOException {
+    FTPFile[] files = arrangeFTPFile(true);
+    Mockito.doReturn(engine).when(ftpClient).initiateListParsing(DIR_TEST);
+    Mockito.when(engine.hasNext()).thenReturn(true, true, true, false);
+    Mockito.when(engine.getNext(2))
+        .thenReturn(
+            new FTPFile[] {files[0], files[1]},
+            new FTPFile[] {files[2], files[3]},
+            new FTPFile[] {files[4]});
+    try (Stream<FTPFile> stream = FtpUtil.streamFiles(ftpClient, DIR_TEST, 2)) {
+      Assertions.assertEquals(3L, stream.filter(FTPFile::isFile).count());
+    }
+  }
+
+  @Test
+  public void streamFilesStopEarlyTest(@Mock FTPListParseEngine engine) throws IOException {
+    FTPFile[] files = arrangeFTPFile(true);
+    Mockito.doReturn(engine).when(ftpClient).initiateListParsing(DIR_TEST);
+    Mockito.doReturn(true).when(engine).hasNext();
+    Mockito.doReturn(new FTPFile[] {files[0], files[1]}).when(engine).getNext(2);
+    try (Stream<FTPFile> stream = FtpUtil.streamFiles(ftpClient, DIR_TEST, 2)) {
+      Assertions.assertEquals("File 0.txt", stream.findFirst().orElseThrow().getName());
+    }
+    Mockito.verify(engine).getNext(2);
+  }
+
+  @Test
+  public void streamFilesExcTest() throws IOException {
+    Mockito.doThrow(new IOException()).when(ftpClient).initiateListParsing(DIR_TEST);
+    Assertions.assertThrows(
+        TechnicalException.class, () -> FtpUtil.streamFiles(ftpClient, DIR_TEST, 2));
+  }
+
+  @Test
+  public void transferLargeFileTest(@TempDir Path tempDir) throws IOException {
+    Path local = Files.write(tempDir.resolve("big.bin"), new byte[5000]);
+    TransferOptions options = new TransferOptions();
+    options.setBufferSize(1024);
+    options.setKeepAliveInterval(Duration.ofSeconds(30));
+    options.setProgressInterval(Duration.ofMinutes(1));
+    List<CopyStreamListener> listeners = new ArrayList<>();
+    Mockito.doReturn(512).when(ftpClient).getBufferSize();
+    Mockito.doAnswer(invocation -> listeners.add(invocation.getArgument(0)))
+        .when(ftpClient)
+        .setCopyStreamListener(Mockito.any());
+    Mockito.doAnswer(
+            invocation -> {
+              byte[] content = invocation.<InputStream>getArgument(1).readAllBytes();
+              listeners.getFirst().bytesTransferred(content.length, 1024, -1L);
+              return true;
+            })
+        .when(ftpClient)
+        .storeFile(Mockito.eq(DIR_TEST), Mockito.any(InputStream.class));
+    List<Long> progress = new ArrayList<>();
+    Assertions.assertTrue(
+        FtpUtil.transferLargeFile(
+            ftpClient,
+            local.toString(),
+            DIR_TEST,
+            options,
+            (route, transferred, total) -> {
+              Assertions.assertEquals(5000L, total);
+              progress.add(transferred);
+            }));
+    Assertions.assertEquals(List.of(5000L), progress);
+    Mockito.verify(ftpClient).setBufferSize(1024);
+    Mockito.verify(ftpClient).setControlKeepAliveTimeout(Duration.ofSeconds(30));
+    Mockito.verify(ftpClient).setBufferSize(512);
+    Assertions.assertNull(listeners.getLast());
+    Mockito.verify(ftpClient, Mockito.never()).sendNoOp();
+  }
+
+  @Test
+  public void transferLargeFileExcTest(@TempDir Path tempDir) {
+    Assertions.assertThrows(
+        TechnicalException.class,
+        () ->
+            FtpUtil.transferLargeFile(
+                ftpClient,
+                tempDir.resolve("missing.bin").toString(),
+                DIR_TEST,
+                new TransferOptions(),
+                null));
+  }
+
+  @Test
+  public void transferFileCompressedGzipTest(@TempDir Path tempDir) throws IOException {
+    byte[] content = "line of a log file\n".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+    Path local = Files.write(tempDir.resolve("app.log"), content);
+    ByteArrayOutputStream remote = storeInto();
+    Assertions.assertTrue(
+        FtpUtil.transferFileCompressed(
+            ftpClient, local.toString(), DIR_TEST, CompressionFormat.GZIP, smallBuffer()));
+    Assertions.assertTrue(remote.size() < content.length);
+    try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(remote.toByteArray()))) {
+      Assertions.assertArrayEquals(content, is.readAllBytes());
+    }
+  }
+
+  @Test
+  public void transferFileCompressedZipTest(@TempDir Path tempDir) throws IOException {
+    byte[] content = "line of a log file\n".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+    Path local = Files.write(tempDir.resolve("app.log"), content);
+    ByteArrayOutputStream remote = storeInto();
+    Assertions.assertTrue(
+        FtpUtil.transferFileCompressed(
+            ftpClient, local.toString(), DIR_TEST, CompressionFormat.ZIP, smallBuffer()));
+    try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(remote.toByteArray()))) {
+      Assertions.assertEquals("app.log", zis.getNextEntry().getName());
+      Assertions.assertArrayEquals(content, zis.readAllBytes());
+      Assertions.assertNull(zis.getNextEntry());
+    }
+  }
+
+  @Test
+  public void transferFileCompressedExcTest(@TempDir Path tempDir) throws IOException {
+    byte[] content = new byte[1_000_000];
+    new Random(5).nextBytes(content);
+    Path local = Files.write(tempDir.resolve("app.bin"), content);
+    Mockito.doAnswer(
+            invocation -> {
+              invocation.<InputStream>getArgument(1).read(new byte[100]);
+              throw new IOException("Connection reset");
+            })
+        .when(ftpClient)
+        .storeFile(Mockito.eq(DIR_TEST), Mockito.any(InputStream.class));
+    Assertions.assertThrows(
+        TechnicalException.class,
+        () ->
+            FtpUtil.transferFileCompressed(
+                ftpClient, local.toString(), DIR_TEST, CompressionFormat.GZIP, smallBuffer()));
+    Mockito.verify(ftpClient).deleteFile(DIR_TEST);
+  }
+
+  @Test
+  public void transferFileCompressedRefusedTest(@TempDir Path tempDir) throws IOException {
+    byte[] content = new byte[1_000_000];
+    new Random(5).nextBytes(content);
+    Path local = Files.write(tempDir.resolve("app.bin"), content);
+    Mockito.doReturn(false)
+        .when(ftpClient)
+        .storeFile(Mockito.eq(DIR_TEST), Mockito.any(InputStream.class));
+    Assertions.assertFalse(
+        FtpUtil.transferFileCompressed(
+            ftpClient, local.toString(), DIR_TEST, CompressionFormat.GZIP, smallBuffer()));
+    Mockito.verify(ftpClient, Mockito.never()).deleteFile(Mockito.anyString());
+  }
+
+  @Test
+  public void transferFileCompressedSourceFailureTest() throws IOException {
+    byte[] content = new byte[200_000];
+    new Random(7).nextBytes(content);
+    InputStream source =
+        new SequenceInputStream(
+            new ByteArrayInputStream(content),
+            new InputStream() {
+              @Override
+              public int read() throws IOException {
+                throw new IOException("Disk error");
+              }
+            });
+    List<Exception> uploadErrors = new ArrayList<>();
+    Mockito.doAnswer(
+            invocation -> {
+              try {
+                invocation.<InputStream>getArgument(1).transferTo(OutputStream.nullOutputStream());
+              } catch (IOException e) {
+                uploadErrors.add(e);
+                throw e;
+              }
+              return true;
+            })
+        .when(ftpClient)
+        .storeFile(Mockito.eq(DIR_TEST), Mockito.any(InputStream.class));
+    Assertions.assertThrows(
+        TechnicalException.class,
+        () ->
+            FtpUtil.transferFileCompressed(
+                ftpClient, source, "app.bin", 0L, DIR_TEST, CompressionFormat.GZIP, smallBuffer()));
+    // the upload sees the error instead of a clean end of a truncated archive
+    Assertions.assertEquals(1, uploadErrors.size());
+    Assertions.assertEquals("Disk error", uploadErrors.getFirst().getMessage());
+    Mockito.verify(ftpClient).deleteFile(DIR_TEST);
+  }
+
+  @Test
+  public void transferFileCompressedMissingFileTest(@TempDir Path tempDir) throws IOException {
+    Assertions.assertThrows(
+        TechnicalException.class,
+        () ->
+            FtpUtil.transferFileCompressed(
+                ftpClient,
+                tempDir.resolve("missing.log").toString(),
+                DIR_TEST,
+                CompressionFormat.GZIP,
+                smallBuffer()));
+    Mockito.verify(ftpClient, Mockito.never())
+        .storeFile(Mockito.anyString(), Mockito.any(InputStream.class));
+  }
+
+  private TransferOptions smallBuffer() {
+    TransferOptions options = new TransferOptions();
+    options.setBufferSize(4096);
+    return options;
+  }
+
+  private ByteArrayOutputStream storeInto() throws IOException {
+    ByteArrayOutputStream remote = new ByteArrayOutputStream();
+    Mockito.doAnswer(
+            invocation -> {
+              invocation.<InputStream>getArgument(1).transferTo(remote);
+              return true;
+            })
+        .when(ftpClient)
+        .storeFile(Mockito.eq(DIR_TEST), Mockito.any(InputStream.class));
+    return remote;
+  }
+
   private FTPFile[] arrangeFTPFile(boolean withElements) {
     List<FTPFile> ftpFiles = new ArrayList<>();
     if (withElements) {
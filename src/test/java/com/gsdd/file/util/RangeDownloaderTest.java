@@ -0,0 +1,135 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.FileTransfer;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferResult;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RangeDownloaderTest {
+
+  private static final String REMOTE = "big.bin";
+  private final List<Long> opened = Collections.synchronizedList(new ArrayList<>());
+  private byte[] content;
+  private TransferOptions options;
+
+  @BeforeEach
+  void setUp() {
+    content = new byte[1000];
+    new Random(7).nextBytes(content);
+    options = new TransferOptions();
+    options.setSegmentSize(100);
+    options.setBufferSize(64);
+    options.setConcurrency(4);
+    options.setRetryDelay(Duration.ZERO);
+  }
+
+  @Test
+  void downloadSegmentsTest(@TempDir Path tempDir) throws IOException {
+    Path local = tempDir.resolve(REMOTE);
+    TransferResult result =
+        RangeDownloader.download(transfer(local), content.length, this::open, options);
+    Assertions.assertTrue(result.isSuccess());
+    Assertions.assertEquals(content.length, result.getBytes());
+    Assertions.assertArrayEquals(content, Files.readAllBytes(local));
+    Assertions.assertEquals(List.of(0L, 250L, 500L, 750L), opened.stream().sorted().toList());
+  }
+
+  @Test
+  void downloadSingleStreamTest(@TempDir Path tempDir) throws IOException {
+    Path local = tempDir.resolve(REMOTE);
+    options.setSegmentSize(4096);
+    TransferResult result =
+        RangeDownloader.download(transfer(local), content.length, this::open, options);
+    Assertions.assertTrue(result.isSuccess());
+    Assertions.assertArrayEquals(content, Files.readAllBytes(local));
+    Assertions.assertEquals(List.of(0L), opened);
+  }
+
+  @Test
+  void downloadResumeRangeTest(@TempDir Path tempDir) throws IOException {
+    Path local = tempDir.resolve(REMOTE);
+    options.setConcurrency(1);
+    AtomicBoolean failOnce = new AtomicBoolean(true);
+    TransferResult result =
+        RangeDownloader.download(
+            transfer(local),
+            content.length,
+            position -> {
+              InputStream is = open(position);
+              if (!failOnce.getAndSet(false)) {
+                return is;
+              }
+              byte[] head = is.readNBytes(300);
+              return new SequenceInputStream(new ByteArrayInputStream(head), failing());
+            },
+            options);
+    Assertions.assertTrue(result.isSuccess());
+    Assertions.assertEquals(2, result.getAttempts());
+    Assertions.assertArrayEquals(content, Files.readAllBytes(local));
+    Assertions.assertEquals(List.of(0L, 300L), opened);
+  }
+
+  @Test
+  void downloadFailureTest(@TempDir Path tempDir) throws IOException {
+    options.setRetries(1);
+    TransferResult result =
+        RangeDownloader.download(
+            transfer(tempDir.resolve(REMOTE)),
+            content.length,
+            position -> new ByteArrayInputStream(new byte[10]),
+            options);
+    Assertions.assertFalse(result.isSuccess());
+    Assertions.assertEquals(2, result.getAttempts());
+    Assertions.assertTrue(result.getError().startsWith("Unexpected end of " + REMOTE));
+    // neither the target nor the partial file are left behind
+    try (Stream<Path> files = Files.list(tempDir)) {
+      Assertions.assertEquals(0L, files.count());
+    }
+  }
+
+  @Test
+  void downloadFailureKeepsFileTest(@TempDir Path tempDir) throws IOException {
+    Path local = Files.write(tempDir.resolve(REMOTE), new byte[] {1, 2, 3});
+    TransferResult result =
+        RangeDownloader.download(transfer(local), content.length, position -> failing(), options);
+    Assertions.assertFalse(result.isSuccess());
+    Assertions.assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(local));
+  }
+
+  private FileTransfer transfer(Path local) {
+    return new FileTransfer(local.toString(), REMOTE);
+  }
+
+  private InputStream open(long position) {
+    opened.add(position);
+    byte[] rest = Arrays.copyOfRange(content, (int) position, content.length);
+    return new ByteArrayInputStream(rest);
+  }
+
+  private static InputStream failing() {
+    return new InputStream() {
+
+      @Override
+      public int read() throws IOException {
+        throw new IOException("reset");
+      }
+    };
+  }
+}
@@ -0,0 +1,60 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.RetentionPolicy;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RetentionEngineTest {
+
+  private static final long NOW = 100_000L;
+
+  // {lastModified, size}, unsorted on purpose
+  private static final List<long[]> ENTRIES =
+      List.of(
+          new long[] {50_000L, 10L},
+          new long[] {90_000L, 30L},
+          new long[] {10_000L, 5L},
+          new long[] {70_000L, 20L},
+          new long[] {99_000L, 40L});
+
+  @Test
+  void keepNewestTest() {
+    Assertions.assertEquals(
+        List.of(10_000L, 50_000L, 70_000L), expiredTimes(RetentionPolicy.keepNewest(2)));
+  }
+
+  @Test
+  void keepNewestZeroTest() {
+    Assertions.assertEquals(5, expiredTimes(RetentionPolicy.keepNewest(0)).size());
+  }
+
+  @Test
+  void keepYoungerThanTest() {
+    Assertions.assertEquals(
+        List.of(10_000L, 50_000L),
+        expiredTimes(RetentionPolicy.keepYoungerThan(Duration.ofSeconds(40))));
+  }
+
+  @Test
+  void keepTotalSizeUnderTest() {
+    // newest first: 40 + 30 = 70 fits, + 20 exceeds, so 70_000 and everything older goes
+    Assertions.assertEquals(
+        List.of(10_000L, 50_000L, 70_000L), expiredTimes(RetentionPolicy.keepTotalSizeUnder(80L)));
+  }
+
+  @Test
+  void combinedPolicyTest() {
+    RetentionPolicy policy =
+        RetentionPolicy.keepNewest(3).and(RetentionPolicy.keepYoungerThan(Duration.ofSeconds(60)));
+    Assertions.assertEquals(List.of(10_000L, 50_000L), expiredTimes(policy));
+  }
+
+  private List<Long> expiredTimes(RetentionPolicy policy) {
+    return RetentionEngine.selectExpired(ENTRIES, e -> e[0], e -> e[1], policy, NOW).stream()
+        .map(e -> e[0])
+        .sorted()
+        .toList();
+  }
+}
@@ -0,0 +1,99 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableSmbFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jcifs.smb.NtStatus;
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SmbBatchCopierTest {
+
+  private static final String SHARE = "smb://server/share/";
+  private final List<String> copied = Collections.synchronizedList(new ArrayList<>());
+  private UploadableSmbFile smbFile;
+  private TransferOptions options;
+
+  @BeforeEach
+  void setUp() {
+    smbFile = new UploadableSmbFile();
+    smbFile.setUrl(SHARE);
+    options = new TransferOptions();
+    options.setRetryDelay(Duration.ZERO);
+  }
+
+  @Test
+  void copyLargestFirstTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(1);
+    List<String> files = createFiles(tempDir, 10, 30, 20);
+    TransferReport report = SmbBatchCopier.copy(smbFile, files, options, this::write);
+    Assertions.assertEquals(
+        List.of(SHARE + "file_1", SHARE + "file_2", SHARE + "file_0"), copied);
+    Assertions.assertEquals(3, report.getSucceeded());
+    Assertions.assertEquals(60L, report.getBytes());
+    // results keep the order of the files
+    TransferResult first = report.getResults().getFirst();
+    Assertions.assertEquals(files.getFirst(), first.getTransfer().getLocalRoute());
+    Assertions.assertEquals(SHARE + "file_0", first.getTransfer().getRemoteRoute());
+  }
+
+  @Test
+  void copyFailureTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(2);
+    options.setRetries(1);
+    SmbException denied = new SmbException(NtStatus.NT_STATUS_ACCESS_DENIED, false);
+    TransferReport report =
+        SmbBatchCopier.copy(
+            smbFile,
+            createFiles(tempDir, 10, 30, 20),
+            options,
+            (local, target, bufferSize) -> {
+              if (target.getName().equals("file_1")) {
+                throw denied;
+              }
+              return write(local, target, bufferSize);
+            });
+    Assertions.assertEquals(2, report.getSucceeded());
+    Assertions.assertEquals(30L, report.getBytes());
+    Assertions.assertEquals(1, report.getFailures().size());
+    TransferResult failure = report.getFailures().getFirst();
+    Assertions.assertEquals(SHARE + "file_1", failure.getTransfer().getRemoteRoute());
+    Assertions.assertEquals(2, failure.getAttempts());
+    Assertions.assertEquals(denied.getMessage(), failure.getError());
+  }
+
+  @Test
+  void copyParallelTest(@TempDir Path tempDir) throws IOException {
+    options.setConcurrency(4);
+    TransferReport report =
+        SmbBatchCopier.copy(smbFile, createFiles(tempDir, new int[40]), options, this::write);
+    Assertions.assertEquals(40, report.getSucceeded());
+    Assertions.assertTrue(report.getFailures().isEmpty());
+    Assertions.assertEquals(40, copied.size());
+  }
+
+  private long write(Path local, SmbFile target, int bufferSize) throws IOException {
+    copied.add(target.getPath());
+    return Files.size(local);
+  }
+
+  private List<String> createFiles(Path tempDir, int... sizes) throws IOException {
+    List<String> files = new ArrayList<>();
+    for (int i = 0; i < sizes.length; i++) {
+      files.add(Files.write(tempDir.resolve("file_" + i), new byte[sizes[i]]).toString());
+    }
+    return files;
+  }
+}
@@ -0,0 +1,71 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.TransferReport;
+import com.gsdd.file.util.model.TransferResult;
+import com.gsdd.file.util.model.UploadableSmbFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Random;
+import jcifs.smb.SmbFile;
+import jcifs.smb.SmbFileFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class SmbDownloaderTest {
+
+  private static final String REMOTE = "big.bin";
+  private byte[] content;
+  private TransferOptions options;
+
+  @BeforeEach
+  void setUp() {
+    content = new byte[1000];
+    new Random(7).nextBytes(content);
+    options = new TransferOptions();
+    options.setSegmentSize(100);
+    options.setBufferSize(64);
+    options.setConcurrency(4);
+    options.setRetryDelay(Duration.ZERO);
+  }
+
+  @Test
+  void syncLocalFailureTest(@TempDir Path tempDir) throws IOException {
+    SmbFile remote = Mockito.mock(SmbFile.class);
+    Mockito.when(remote.getName()).thenReturn(REMOTE);
+    Mockito.when(remote.length()).thenReturn((long) content.length);
+    SmbFile route = Mockito.mock(SmbFile.class);
+    Mockito.when(route.listFiles(Mockito.any(SmbFileFilter.class)))
+        .thenAnswer(
+            invocation -> {
+              invocation.<SmbFileFilter>getArgument(0).accept(remote);
+              return new SmbFile[0];
+            });
+    UploadableSmbFile smbFile = new UploadableSmbFile();
+    smbFile.setRoute(route);
+    TransferReport report =
+        SmbDownloader.sync(smbFile, tempDir.resolve("missing").toString(), options);
+    Assertions.assertEquals(1, report.getFailures().size());
+    TransferResult failure = report.getFailures().getFirst();
+    Assertions.assertEquals(REMOTE, failure.getTransfer().getRemoteRoute());
+    Assertions.assertNotNull(failure.getError());
+  }
+
+  @Test
+  void isUpToDateTest(@TempDir Path tempDir) throws IOException {
+    Path local = Files.write(tempDir.resolve(REMOTE), content);
+    Files.setLastModifiedTime(local, FileTime.fromMillis(1_000_000L));
+    Assertions.assertTrue(SmbDownloader.isUpToDate(local, content.length, 1_000_000L));
+    Assertions.assertFalse(SmbDownloader.isUpToDate(local, content.length, 2_000_000L));
+    Assertions.assertFalse(SmbDownloader.isUpToDate(local, 10, 1_000_000L));
+    Assertions.assertFalse(
+        SmbDownloader.isUpToDate(tempDir.resolve("missing"), content.length, 1_000_000L));
+  }
+
+}
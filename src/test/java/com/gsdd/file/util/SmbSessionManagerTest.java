@@ -0,0 +1,84 @@
+package com.gsdd.file.util;
+
+import com.gsdd.file.util.model.UploadableSmbFile;
+import java.time.Duration;
+import jcifs.smb.NtlmPasswordAuthentication;
+import jcifs.smb.SmbFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SmbSessionManagerTest {
+
+  private static final Duration IDLE = Duration.ofMinutes(5);
+
+  @Test
+  void getAuthTest() {
+    SmbSessionManager sessions = new SmbSessionManager(IDLE);
+    NtlmPasswordAuthentication auth = sessions.getAuth("user", "pass");
+    Assertions.assertSame(auth, sessions.getAuth("user", "pass"));
+    Assertions.assertNotSame(auth, sessions.getAuth("user", "other"));
+    Assertions.assertEquals("user", auth.getUsername());
+  }
+
+  @Test
+  void getRouteTest() {
+    SmbSessionManager sessions = new SmbSessionManager(IDLE);
+    SmbFile route = sessions.getRoute(smbFile("server/share/", "user"));
+    Assertions.assertSame(route, sessions.getRoute(smbFile("server/share/", "user")));
+    Assertions.assertNotSame(route, sessions.getRoute(smbFile("server/share/", "other")));
+    Assertions.assertNotSame(route, sessions.getRoute(smbFile("server/other/", "user")));
+    Assertions.assertEquals("smb://server/share/", route.getPath());
+    Assertions.assertEquals(3, sessions.size());
+  }
+
+  @Test
+  void prepareTest() {
+    SmbSessionManager sessions = new SmbSessionManager(IDLE);
+    UploadableSmbFile smbFile = sessions.prepare(smbFile("server/share/", "user"));
+    Assertions.assertSame(sessions.getRoute(smbFile), smbFile.getRoute());
+    Assertions.assertSame(sessions.getAuth("user", "pass"), smbFile.getAuth());
+  }
+
+  @Test
+  void invalidateTest() {
+    SmbSessionManager sessions = new SmbSessionManager(IDLE);
+    UploadableSmbFile smbFile = smbFile("server/share/", "user");
+    SmbFile route = sessions.getRoute(smbFile);
+    sessions.invalidate(smbFile);
+    Assertions.assertEquals(0, sessions.size());
+    Assertions.assertNotSame(route, sessions.getRoute(smbFile));
+  }
+
+  @Test
+  void evictIdleTest() throws InterruptedException {
+    SmbSessionManager sessions = new SmbSessionManager(Duration.ofMillis(1));
+    UploadableSmbFile smbFile = smbFile("server/share/", "user");
+    SmbFile route = sessions.getRoute(smbFile);
+    Thread.sleep(5);
+    Assertions.assertNotSame(route, sessions.getRoute(smbFile));
+    Thread.sleep(5);
+    sessions.evictIdle();
+    Assertions.assertEquals(0, sessions.size());
+  }
+
+  @Test
+  void scheduledEvictionTest() throws InterruptedException {
+    try (SmbSessionManager sessions =
+        new SmbSessionManager(Duration.ofMillis(1), Duration.ofMillis(5))) {
+      sessions.getRoute(smbFile("server/share/", "user"));
+      long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+      while (sessions.size() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      Assertions.assertEquals(0, sessions.size());
+    }
+  }
+
+  private UploadableSmbFile smbFile(String url, String user) {
+    UploadableSmbFile smbFile = new UploadableSmbFile();
+    smbFile.setUrl(url);
+    smbFile.setUser(user);
+    smbFile.setPass("pass");
+    return smbFile;
+  }
+}
@@ -0,0 +1,257 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.DeletionReport;
+import com.gsdd.file.util.model.RetentionPolicy;
+import com.gsdd.file.util.model.SmbEntry;
+import com.gsdd.file.util.model.TransferOptions;
+import com.gsdd.file.util.model.UploadableSmbFile;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import jcifs.smb.NtStatus;
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import jcifs.smb.SmbFileFilter;
+import jcifs.smb.SmbFileOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedConstruction;
+import org.mockito.Mockito;
+
+class SmbUtilTest {
+
+  private SmbFile empty;
+  private SmbFile old;
+  private SmbFile recent;
+  private SmbFile dir;
+  private UploadableSmbFile smbFile;
+  private int offered;
+
+  @BeforeEach
+  void setUp() throws SmbException {
+    empty = entry("empty.log", 0L, 2_000L, false);
+    old = entry("old.log", 10L, 1_000L, false);
+    recent = entry("recent.log", 20L, 3_000L, false);
+    dir = entry("dir", 0L, 500L, true);
+    SmbFile route = Mockito.mock(SmbFile.class);
+    Mockito.when(route.listFiles(Mockito.any(SmbFileFilter.class)))
+        .thenAnswer(
+            invocation -> {
+              SmbFileFilter filter = invocation.getArgument(0);
+              for (SmbFile file : List.of(recent, dir, empty, old)) {
+                filter.accept(file);
+                offered++;
+              }
+              return new SmbFile[0];
+            });
+    smbFile = new UploadableSmbFile();
+    smbFile.setRoute(route);
+  }
+
+  @Test
+  void getFileEntriesTest() throws SmbException {
+    List<SmbEntry> entries = SmbUtil.getFileEntries(smbFile);
+    Assertions.assertEquals(4, entries.size());
+    SmbEntry first = entries.getFirst();
+    Assertions.assertEquals("recent.log", first.getName());
+    Assertions.assertEquals(20L, first.getSize());
+    Assertions.assertEquals(3_000L, first.getLastModified());
+    Assertions.assertFalse(first.isDirectory());
+    Assertions.assertTrue(entries.get(1).isDirectory());
+    Mockito.verify(dir, Mockito.never()).length();
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> entries.add(first));
+  }
+
+  @Test
+  void forEachFileStopTest() throws SmbException {
+    List<SmbFile> seen = new ArrayList<>();
+    int visited = SmbUtil.forEachFile(smbFile, file -> seen.add(file) && seen.size() < 2);
+    Assertions.assertEquals(2, visited);
+    Assertions.assertEquals(List.of(recent, dir), seen);
+    Assertions.assertEquals(4, offered);
+  }
+
+  @Test
+  void getFilesSortedByLastModificationTest() throws SmbException {
+    Assertions.assertEquals(
+        List.of(old, empty, recent), SmbUtil.getFilesSortedByLastModification(smbFile));
+    for (SmbFile file : List.of(old, empty, recent)) {
+      Mockito.verify(file).lastModified();
+      Mockito.verify(file).length();
+      Mockito.verify(file, Mockito.never()).getLastModified();
+    }
+  }
+
+  @Test
+  void deleteEmptyFilesTest() throws SmbException {
+    SmbUtil.deleteEmptyFiles(smbFile);
+    Mockito.verify(empty).delete();
+    Mockito.verify(dir, Mockito.never()).delete();
+    Mockito.verify(old, Mockito.never()).delete();
+    Mockito.verify(recent, Mockito.never()).delete();
+  }
+
+  @Test
+  void deleteOldFilesPolicyTest() throws SmbException {
+    Assertions.assertEquals(2, SmbUtil.deleteOldFiles(smbFile, RetentionPolicy.keepNewest(1)));
+    Mockito.verify(old).delete();
+    Mockito.verify(empty).delete();
+    Mockito.verify(recent, Mockito.never()).delete();
+    Mockito.verify(dir, Mockito.never()).delete();
+  }
+
+  @Test
+  void deleteOldFilesBackupTest() throws SmbException {
+    Assertions.assertFalse(SmbUtil.deleteOldFiles(smbFile, 3));
+    Mockito.verify(old, Mockito.never()).delete();
+    Assertions.assertTrue(SmbUtil.deleteOldFiles(smbFile, 2));
+    Mockito.verify(old).delete();
+    Mockito.verify(empty, Mockito.never()).delete();
+    Mockito.verify(recent, Mockito.never()).delete();
+  }
+
+  @Test
+  void deleteOldFilesParallelTest() throws SmbException {
+    Mockito.doThrow(new SmbException(NtStatus.NT_STATUS_ACCESS_DENIED, false)).when(old).delete();
+    Mockito.when(old.getPath()).thenReturn("smb://server/share/logs/old.log");
+    DeletionReport report = SmbUtil.deleteOldFiles(smbFile, RetentionPolicy.keepNewest(1), 4);
+    Assertions.assertEquals(1, report.getDeleted());
+    // keyed by the full path like the local BulkDeleter
+    Assertions.assertEquals(
+        Set.of("smb://server/share/logs/old.log"), report.getFailures().keySet());
+    Mockito.verify(empty).delete();
+    Mockito.verify(recent, Mockito.never()).delete();
+    Mockito.verify(dir, Mockito.never()).delete();
+  }
+
+  @Test
+  void deleteOldFilesAgeTest() throws SmbException {
+    DeletionReport report =
+        SmbUtil.deleteOldFiles(smbFile, RetentionPolicy.keepYoungerThan(Duration.ofDays(1)), 2);
+    Assertions.assertEquals(3, report.getDeleted());
+    Assertions.assertEquals(30L, report.getBytesFreed());
+    Assertions.assertTrue(report.getFailures().isEmpty());
+    Mockito.verify(dir, Mockito.never()).delete();
+  }
+
+  @Test
+  void readSourceFailureTest() {
+    BoundedPipe pipe = new BoundedPipe(1024, 2);
+    InputStream source =
+        new SequenceInputStream(
+            new ByteArrayInputStream(new byte[100]),
+            new InputStream() {
+              @Override
+              public int read() throws IOException {
+                throw new IOException("Disk error");
+              }
+            });
+    CompletableFuture<byte[]> written =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return pipe.getInput().readAllBytes();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+    Assertions.assertThrows(IOException.class, () -> SmbUtil.read(source, pipe));
+    // the writer sees the error instead of a clean end of a truncated file
+    CompletionException e = Assertions.assertThrows(CompletionException.class, written::join);
+    Assertions.assertEquals("Disk error", e.getCause().getCause().getMessage());
+  }
+
+  @Test
+  void transferLargeFileTest(@TempDir Path tempDir) throws IOException {
+    byte[] content = new byte[10_000];
+    new Random(3).nextBytes(content);
+    Path local = Files.write(tempDir.resolve("big.bin"), content);
+    ByteArrayOutputStream remote = new ByteArrayOutputStream();
+    List<Integer> chunks = Collections.synchronizedList(new ArrayList<>());
+    AtomicLong reported = new AtomicLong();
+    try (MockedConstruction<SmbFile> targets = Mockito.mockConstruction(SmbFile.class);
+        MockedConstruction<SmbFileOutputStream> streams =
+            Mockito.mockConstruction(
+                SmbFileOutputStream.class,
+                (stream, context) ->
+                    Mockito.doAnswer(
+                            invocation -> {
+                              int length = invocation.getArgument(2);
+                              chunks.add(length);
+                              remote.write(invocation.getArgument(0), 0, length);
+                              return null;
+                            })
+                        .when(stream)
+                        .write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt()))) {
+      Assertions.assertTrue(
+          SmbUtil.transferLargeFile(
+              smbFile,
+              local.toString(),
+              largeOptions(),
+              (route, transferred, total) -> {
+                Assertions.assertEquals(content.length, total);
+                reported.set(transferred);
+              }));
+      // whole chunks are handed from the reader, with no flush per chunk
+      Assertions.assertEquals(List.of(4096, 4096, 1808), chunks);
+      Mockito.verify(streams.constructed().getFirst(), Mockito.never()).flush();
+      Mockito.verify(streams.constructed().getFirst()).close();
+      Mockito.verify(targets.constructed().getFirst(), Mockito.never()).delete();
+    }
+    Assertions.assertArrayEquals(content, remote.toByteArray());
+    Assertions.assertEquals(content.length, reported.get());
+  }
+
+  @Test
+  void transferLargeFileFailureTest(@TempDir Path tempDir) throws IOException {
+    Path local = Files.write(tempDir.resolve("big.bin"), new byte[10_000]);
+    try (MockedConstruction<SmbFile> targets = Mockito.mockConstruction(SmbFile.class);
+        MockedConstruction<SmbFileOutputStream> streams =
+            Mockito.mockConstruction(
+                SmbFileOutputStream.class,
+                (stream, context) ->
+                    Mockito.doThrow(new SmbException(NtStatus.NT_STATUS_ACCESS_DENIED, false))
+                        .when(stream)
+                        .write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt()))) {
+      Assertions.assertThrows(
+          TechnicalException.class,
+          () -> SmbUtil.transferLargeFile(smbFile, local.toString(), largeOptions(), null));
+      // the partial remote file is not left behind
+      Mockito.verify(targets.constructed().getFirst()).delete();
+    }
+  }
+
+  private static TransferOptions largeOptions() {
+    TransferOptions options = new TransferOptions();
+    options.setBufferSize(4096);
+    options.setProgressInterval(Duration.ofMillis(10));
+    return options;
+  }
+
+  private static SmbFile entry(String name, long size, long lastModified, boolean directory)
+      throws SmbException {
+    SmbFile file = Mockito.mock(SmbFile.class);
+    Mockito.when(file.getName()).thenReturn(name);
+    Mockito.when(file.length()).thenReturn(size);
+    Mockito.when(file.lastModified()).thenReturn(lastModified);
+    Mockito.when(file.isDirectory()).thenReturn(directory);
+    return file;
+  }
+}
@@ -0,0 +1,195 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.CompressedEntry;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ZipArchiverTest {
+
+  private static final String TEST_ZIP = "test.zip";
+  private static final String CONTENT = "test_1_.txt";
+  private static final int FILES = 20;
+
+  @Test
+  void zipFilesTest(@TempDir Path tempDir) throws IOException {
+    List<File> files = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      Path file = tempDir.resolve("file_" + i + ".txt");
+      Files.writeString(file, CONTENT.repeat(i * 100));
+      files.add(file.toFile());
+    }
+    String zipName = tempDir.resolve(TEST_ZIP).toString();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Assertions.assertTrue(ZipArchiver.zipFiles(zipName, files, 512, executor, 2));
+    } finally {
+      executor.shutdown();
+    }
+    try (ZipFile zip = new ZipFile(zipName)) {
+      List<? extends ZipEntry> entries = zip.stream().toList();
+      Assertions.assertEquals(FILES, entries.size());
+      for (int i = 0; i < FILES; i++) {
+        ZipEntry entry = entries.get(i);
+        Assertions.assertEquals("file_" + i + ".txt", entry.getName());
+        Assertions.assertEquals(CONTENT.repeat(i * 100), read(zip, entry));
+      }
+    }
+  }
+
+  @Test
+  void zipDirectoryTest(@TempDir Path tempDir) throws IOException {
+    Path nested = Files.createDirectories(tempDir.resolve("2024").resolve("01"));
+    Files.writeString(tempDir.resolve("root.txt"), CONTENT);
+    Files.writeString(nested.resolve("nested.txt"), CONTENT);
+    String zipName = tempDir.resolve(TEST_ZIP).toString();
+    Assertions.assertTrue(ZipArchiver.zipDirectory(zipName, tempDir.toString(), 4096));
+    try (ZipFile zip = new ZipFile(zipName)) {
+      Assertions.assertEquals(2, zip.size());
+      Assertions.assertEquals(CONTENT, read(zip, zip.getEntry("2024/01/nested.txt")));
+      Assertions.assertEquals(CONTENT, read(zip, zip.getEntry("root.txt")));
+    }
+  }
+
+  @Test
+  void zipFilesExcTest(@TempDir Path tempDir) {
+    String zipName = tempDir.resolve(TEST_ZIP).toString();
+    List<File> files = List.of(tempDir.resolve("missing.txt").toFile());
+    Assertions.assertThrows(
+        TechnicalException.class, () -> ZipArchiver.zipFiles(zipName, files, 4096));
+  }
+
+  @Test
+  void zipFilesDuplicateNameTest(@TempDir Path tempDir) throws IOException {
+    Path zip = tempDir.resolve(TEST_ZIP);
+    List<File> files = new ArrayList<>();
+    for (String dir : List.of("a", "b")) {
+      Path file = Files.createDirectories(tempDir.resolve(dir)).resolve("app.log");
+      files.add(Files.writeString(file, dir).toFile());
+    }
+    TechnicalException e =
+        Assertions.assertThrows(
+            TechnicalException.class, () -> ZipArchiver.zipFiles(zip.toString(), files, 4096));
+    Assertions.assertInstanceOf(ZipException.class, e.getCause());
+    Assertions.assertFalse(Files.exists(zip));
+  }
+
+  @Test
+  void zipSpilledEntriesTest(@TempDir Path tempDir) throws IOException, InterruptedException {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      byte[] content = new byte[10_000 * (i + 1)];
+      new Random(i).nextBytes(content);
+      paths.add(Files.write(tempDir.resolve("file_" + i + ".bin"), content));
+    }
+    List<Path> spilled = new ArrayList<>();
+    String zipName = tempDir.resolve(TEST_ZIP).toString();
+    Assertions.assertTrue(
+        ZipArchiver.write(
+            zipName,
+            paths,
+            null,
+            512,
+            ForkJoinPool.commonPool(),
+            2,
+            (path, name) -> {
+              CompressedEntry entry =
+                  ZipArchiver.compress(path, name, 512, Deflater.DEFAULT_COMPRESSION, false, 1024);
+              Assertions.assertNull(entry.getData());
+              spilled.add(entry.getDataFile());
+              return entry;
+            }));
+    try (ZipFile zip = new ZipFile(zipName)) {
+      for (Path path : paths) {
+        try (InputStream is = zip.getInputStream(zip.getEntry(path.getFileName().toString()))) {
+          Assertions.assertArrayEquals(Files.readAllBytes(path), is.readAllBytes());
+        }
+      }
+    }
+    Assertions.assertEquals(3, spilled.size());
+    Assertions.assertTrue(spilled.stream().noneMatch(Files::exists));
+  }
+
+  @Test
+  void zipAbortTest(@TempDir Path tempDir) throws IOException {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      paths.add(Files.writeString(tempDir.resolve("file_" + i + ".txt"), CONTENT));
+    }
+    Path zip = tempDir.resolve(TEST_ZIP);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    IOException error;
+    try {
+      error =
+          Assertions.assertThrows(
+              IOException.class,
+              () ->
+                  ZipArchiver.write(
+                      zip.toString(),
+                      paths,
+                      null,
+                      512,
+                      executor,
+                      1,
+                      (path, name) -> {
+                        if (name.equals("file_3.txt")) {
+                          throw new IOException("read error");
+                        }
+                        return ZipArchiver.compress(
+                            path, name, 512, Deflater.DEFAULT_COMPRESSION, false);
+                      }));
+    } finally {
+      executor.shutdown();
+    }
+    Assertions.assertEquals("read error", error.getMessage());
+    Assertions.assertFalse(Files.exists(zip));
+  }
+
+  @Test
+  void zip64EntryHeaderTest() throws IOException {
+    long size = 5L * 1024 * 1024 * 1024;
+    byte[] data = {1, 2, 3};
+    CompressedEntry entry =
+        new CompressedEntry(
+            "big.bin", ZipEntry.STORED, 0, 20, 0L, size, 0L, new byte[0], data, null, data.length);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ZipStreamWriter writer = new ZipStreamWriter(out)) {
+      writer.writeEntry(entry);
+    }
+    ByteBuffer header = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+    Assertions.assertEquals(45, header.getShort(4));
+    Assertions.assertEquals(-1, header.getInt(18));
+    Assertions.assertEquals(-1, header.getInt(22));
+    int extraStart = 30 + "big.bin".length();
+    Assertions.assertEquals(1, header.getShort(extraStart));
+    Assertions.assertEquals(16, header.getShort(extraStart + 2));
+    Assertions.assertEquals(size, header.getLong(extraStart + 4));
+    Assertions.assertEquals(data.length, header.getLong(extraStart + 12));
+  }
+
+  private String read(ZipFile zip, ZipEntry entry) throws IOException {
+    try (InputStream is = zip.getInputStream(entry)) {
+      return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
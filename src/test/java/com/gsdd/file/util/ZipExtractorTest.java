@@ -0,0 +1,133 @@
+package com.gsdd.file.util;
+
+import com.gsdd.exception.TechnicalException;
+import com.gsdd.file.util.model.ArchiveEntry;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ZipExtractorTest {
+
+  private static final String TEST_ZIP = "test.zip";
+  private static final String CONTENT = "test_1_.txt";
+
+  @Test
+  void unzipTest(@TempDir Path tempDir) throws IOException {
+    Path zip = tempDir.resolve(TEST_ZIP);
+    try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip.toFile()))) {
+      zos.putNextEntry(new ZipEntry("empty/"));
+      zos.closeEntry();
+      addEntry(zos, "a/b/nested.txt", CONTENT.repeat(1000));
+      addEntry(zos, "a/b/other.txt", CONTENT);
+      addEntry(zos, "zero.txt", "");
+    }
+    Path out = tempDir.resolve("out");
+    Assertions.assertEquals(3, ZipExtractor.unzip(zip.toString(), out.toString(), 64));
+    Assertions.assertTrue(Files.isDirectory(out.resolve("empty")));
+    Assertions.assertEquals(CONTENT.repeat(1000), Files.readString(out.resolve("a/b/nested.txt")));
+    Assertions.assertEquals(CONTENT, Files.readString(out.resolve("a/b/other.txt")));
+    Assertions.assertEquals(0L, Files.size(out.resolve("zero.txt")));
+  }
+
+  @Test
+  void unzipSlipTest(@TempDir Path tempDir) throws IOException {
+    Path zip = tempDir.resolve(TEST_ZIP);
+    try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip.toFile()))) {
+      addEntry(zos, "../evil.txt", CONTENT);
+    }
+    String out = tempDir.resolve("out").toString();
+    Assertions.assertThrows(
+        TechnicalException.class, () -> ZipExtractor.unzip(zip.toString(), out, 64));
+    Assertions.assertFalse(Files.exists(tempDir.resolve("evil.txt")));
+  }
+
+  @Test
+  void unzipExcTest(@TempDir Path tempDir) {
+    String zip = tempDir.resolve(TEST_ZIP).toString();
+    Assertions.assertThrows(
+        TechnicalException.class, () -> ZipExtractor.unzip(zip, tempDir.toString(), 64));
+  }
+
+  @Test
+  void listEntriesTest(@TempDir Path tempDir) throws IOException {
+    Path zip = createArchive(tempDir);
+    List<ArchiveEntry> entries = ZipExtractor.listEntries(zip.toString());
+    Assertions.assertEquals(
+        List.of("dir/", "dir/a.txt", "dir/b.txt", "stored.txt"),
+        entries.stream().map(ArchiveEntry::getName).toList());
+    Assertions.assertTrue(entries.get(0).isDirectory());
+    Assertions.assertEquals(CONTENT.length() * 1000L, entries.get(1).getSize());
+  }
+
+  @Test
+  void extractParallelTest(@TempDir Path tempDir) throws IOException {
+    Path zip = createArchive(tempDir);
+    Path out = tempDir.resolve("out");
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      Assertions.assertEquals(
+          3, ZipExtractor.extract(zip.toString(), out.toString(), name -> true, 128, pool));
+    } finally {
+      pool.shutdown();
+    }
+    Assertions.assertEquals(CONTENT.repeat(1000), Files.readString(out.resolve("dir/a.txt")));
+    Assertions.assertEquals(CONTENT, Files.readString(out.resolve("dir/b.txt")));
+    Assertions.assertEquals(CONTENT, Files.readString(out.resolve("stored.txt")));
+  }
+
+  @Test
+  void extractFilterTest(@TempDir Path tempDir) throws IOException {
+    Path zip = createArchive(tempDir);
+    Path out = tempDir.resolve("out");
+    Assertions.assertEquals(
+        1, ZipExtractor.extract(zip.toString(), out.toString(), "dir/b.txt"::equals, 4096));
+    Assertions.assertEquals(CONTENT, Files.readString(out.resolve("dir/b.txt")));
+    Assertions.assertFalse(Files.exists(out.resolve("dir/a.txt")));
+    Assertions.assertFalse(Files.exists(out.resolve("stored.txt")));
+  }
+
+  @Test
+  void extractExcTest(@TempDir Path tempDir) throws IOException {
+    Path zip = Files.writeString(tempDir.resolve(TEST_ZIP), CONTENT);
+    String out = tempDir.toString();
+    Assertions.assertThrows(
+        TechnicalException.class, () -> ZipExtractor.extract(zip.toString(), out, n -> true, 64));
+  }
+
+  private Path createArchive(Path tempDir) throws IOException {
+    Path zip = tempDir.resolve(TEST_ZIP);
+    try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip.toFile()))) {
+      zos.putNextEntry(new ZipEntry("dir/"));
+      zos.closeEntry();
+      addEntry(zos, "dir/a.txt", CONTENT.repeat(1000));
+      addEntry(zos, "dir/b.txt", CONTENT);
+      byte[] stored = CONTENT.getBytes(StandardCharsets.UTF_8);
+      CRC32 crc = new CRC32();
+      crc.update(stored);
+      ZipEntry entry = new ZipEntry("stored.txt");
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(stored.length);
+      entry.setCrc(crc.getValue());
+      zos.putNextEntry(entry);
+      zos.write(stored);
+      zos.closeEntry();
+    }
+    return zip;
+  }
+
+  private void addEntry(ZipOutputStream zos, String name, String content) throws IOException {
+    zos.putNextEntry(new ZipEntry(name));
+    zos.write(content.getBytes(StandardCharsets.UTF_8));
+    zos.closeEntry();
+  }
+}